@@ -0,0 +1,76 @@
+package bench;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the convex hull, area and validity computations, on the instances of the data directory. <br>
+ *
+ * The area and validity tests run on an x-monotone polygon through all the input points (a valid polygon,
+ * so that the self-intersection test sweeps the whole polygon).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeometryBenchmark {
+
+	@Param({ "uniform-0000010-1", "uniform-0000100-1", "euro-night-0000100", "paris-0001000", "uniform-0001000-1",
+			"uniform-0010000-1", "world-0010000", "uniform-0100000-1" })
+	String instance;
+
+	Object op;
+	int[] polygon;
+	PrintStream out;
+
+	@Setup
+	public void setup() {
+		this.out = Polygons.silence();
+		Object points = Polygons.read(this.instance);
+		this.op = Polygons.newOptimalPolygon(points, 1);
+		this.polygon = Polygons.monotonePolygon(points);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(this.out);
+	}
+
+	@Benchmark
+	public int[] convexHull() throws Throwable {
+		return (int[]) Polygons.CONVEX_HULL.invokeExact(this.op);
+	}
+
+	@Benchmark
+	public long area() throws Throwable {
+		return (long) Polygons.AREA.invokeExact(this.op, this.polygon);
+	}
+
+	@Benchmark
+	public boolean validity() throws Throwable {
+		return (boolean) Polygons.VALIDITY.invokeExact(this.op, this.polygon);
+	}
+
+	@Benchmark
+	public boolean selfIntersection() throws Throwable {
+		return (boolean) Polygons.SELF_INTERSECTION.invokeExact(this.op, this.polygon);
+	}
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the greedy minimal and maximal area polygons, on the instances of the data directory. <br>
+ *
+ * A run takes from microseconds to minutes depending on the instance: each measurement is a single run.
+ * Use for instance '-p instance=paris-0001000' to select the instances, and '-p threads=1,4' for the pool size.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GreedyBenchmark {
+
+	@Param({ "uniform-0000010-1", "uniform-0000100-1", "euro-night-0000100", "paris-0001000", "uniform-0001000-1",
+			"uniform-0010000-1", "world-0010000", "uniform-0100000-1" })
+	String instance;
+
+	/** number of threads of the insertion engine */
+	@Param({ "1" })
+	int threads;
+
+	Object op;
+	PrintStream out;
+
+	@Setup
+	public void setup() {
+		this.out = Polygons.silence();
+		this.op = Polygons.newOptimalPolygon(Polygons.read(this.instance), this.threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(this.out);
+	}
+
+	@Benchmark
+	public int[] minimalAreaPolygon() throws Throwable {
+		return (int[]) Polygons.MINIMAL.invokeExact(this.op);
+	}
+
+	@Benchmark
+	public int[] maximalAreaPolygon() throws Throwable {
+		return (int[]) Polygons.MAXIMAL.invokeExact(this.op);
+	}
+}
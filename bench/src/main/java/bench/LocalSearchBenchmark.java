@@ -0,0 +1,85 @@
+package bench;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the local search (LocalSearch.runMoves), in moves per millisecond, on the instances of 10k points. <br>
+ *
+ * The search starts from the polygon computed by the triangle carving, or from the x-monotone polygon (whose long
+ * edges make the crossing tests more expensive). It is restarted at each iteration, so that all the iterations
+ * measure the same moves.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalSearchBenchmark {
+
+	/** moves tried by an invocation */
+	static final int MOVES = 10000;
+
+	@Param({ "uniform-0010000-1", "world-0010000" })
+	String instance;
+
+	/** polygon the search starts from: 'carving' or 'monotone' */
+	@Param({ "carving", "monotone" })
+	String start;
+
+	/** true for the minimal area polygon, false for the maximal area polygon */
+	@Param({ "true", "false" })
+	boolean minimize;
+
+	Object op;
+	int[] polygon;
+	Object search;
+	PrintStream out;
+
+	@Setup
+	public void setup() throws Throwable {
+		this.out = Polygons.silence();
+		Object points = Polygons.read(this.instance);
+		this.op = Polygons.newOptimalPolygon(points, 1);
+		if (this.start.equals("monotone"))
+			this.polygon = Polygons.monotonePolygon(points);
+		else
+			this.polygon = this.minimize ? (int[]) Polygons.MINIMAL_CARVING.invokeExact(this.op)
+					: (int[]) Polygons.MAXIMAL_CARVING.invokeExact(this.op);
+	}
+
+	@Setup(Level.Iteration)
+	public void restart() throws Throwable {
+		this.search = (Object) Polygons.NEW_LOCAL_SEARCH.invokeExact(this.op, this.polygon, this.minimize, 0L);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(this.out);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MOVES)
+	public void runMoves() throws Throwable {
+		Polygons.RUN_MOVES.invokeExact(this.search, (long) MOVES);
+	}
+}
@@ -0,0 +1,151 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Access to the classes of the project from the benchmarks. <br>
+ *
+ * JMH does not accept benchmarks in the default package, and the classes of the default package cannot be
+ * imported: their methods are looked up once as method handles (stored in static final fields, so that the
+ * JIT compiler inlines the calls). The instances are handled as Object.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+final class Polygons {
+
+	static final MethodHandle READ, NEW, SET_PARALLELISM, XS, YS;
+	static final MethodHandle CONVEX_HULL, AREA, VALIDITY, SELF_INTERSECTION, MINIMAL, MAXIMAL;
+	static final MethodHandle MINIMAL_CARVING, MAXIMAL_CARVING, NEW_LOCAL_SEARCH, RUN_MOVES;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> io = Class.forName("PointCloud_IO");
+			Class<?> packed = Class.forName("PackedPoints");
+			Class<?> op = Class.forName("OptimalPolygon");
+
+			READ = lookup.findStatic(io, "readMapped", MethodType.methodType(packed, String.class))
+					.asType(MethodType.methodType(Object.class, String.class));
+			NEW = lookup.findConstructor(op, MethodType.methodType(void.class, packed))
+					.asType(MethodType.methodType(Object.class, Object.class));
+			SET_PARALLELISM = lookup.findVirtual(op, "setParallelism", MethodType.methodType(void.class, int.class))
+					.asType(MethodType.methodType(void.class, Object.class, int.class));
+			XS = lookup.findGetter(packed, "xs", int[].class).asType(MethodType.methodType(int[].class, Object.class));
+			YS = lookup.findGetter(packed, "ys", int[].class).asType(MethodType.methodType(int[].class, Object.class));
+
+			CONVEX_HULL = virtual(lookup, op, "computeConvexHull", int[].class);
+			AREA = virtual(lookup, op, "computeArea", long.class, int[].class);
+			VALIDITY = virtual(lookup, op, "checkValidity", boolean.class, int[].class);
+			SELF_INTERSECTION = virtual(lookup, op, "doesSelfIntersect", boolean.class, int[].class);
+			MINIMAL = virtual(lookup, op, "computeMinimalAreaPolygon", int[].class);
+			MAXIMAL = virtual(lookup, op, "computeMaximalAreaPolygon", int[].class);
+			MINIMAL_CARVING = virtual(lookup, op, "computeMinimalAreaPolygonByCarving", int[].class);
+			MAXIMAL_CARVING = virtual(lookup, op, "computeMaximalAreaPolygonByCarving", int[].class);
+
+			Class<?> search = Class.forName("LocalSearch");
+			NEW_LOCAL_SEARCH = lookup.findConstructor(search, MethodType.methodType(void.class, op, int[].class, boolean.class, long.class))
+					.asType(MethodType.methodType(Object.class, Object.class, int[].class, boolean.class, long.class));
+			RUN_MOVES = virtual(lookup, search, "runMoves", void.class, long.class);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> c, String name, Class<?> result, Class<?>... parameters)
+			throws ReflectiveOperationException {
+		MethodHandle h = lookup.findVirtual(c, name, MethodType.methodType(result, parameters));
+		return h.asType(h.type().changeParameterType(0, Object.class));
+	}
+
+	private Polygons() {
+	}
+
+	/** Load the instance data/'name'.instance (the data directory is given by the property data.dir) */
+	static Object read(String name) {
+		String filename = System.getProperty("data.dir", "../data") + "/" + name + ".instance";
+		try {
+			return (Object) READ.invokeExact(filename);
+		}
+		catch (Throwable t) {
+			throw rethrow(t);
+		}
+	}
+
+	static Object newOptimalPolygon(Object points, int parallelism) {
+		try {
+			Object op = (Object) NEW.invokeExact(points);
+			SET_PARALLELISM.invokeExact(op, parallelism);
+			return op;
+		}
+		catch (Throwable t) {
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * A simple polygon through all the points (x-monotone: the points below the line joining the leftmost
+	 * and the rightmost points from left to right, then the other ones from right to left). The points lying
+	 * on this line go below, unless no point lies above it.
+	 */
+	static int[] monotonePolygon(Object points) {
+		final int[] xs, ys;
+		try {
+			xs = (int[]) XS.invokeExact(points);
+			ys = (int[]) YS.invokeExact(points);
+		}
+		catch (Throwable t) {
+			throw rethrow(t);
+		}
+		int n = xs.length;
+		Integer[] sorted = new Integer[n];
+		for (int i = 0; i < n; i++)
+			sorted[i] = i;
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			public int compare(Integer p, Integer q) {
+				return xs[p] != xs[q] ? Integer.compare(xs[p], xs[q]) : Integer.compare(ys[p], ys[q]);
+			}
+		});
+		int a = sorted[0], b = sorted[n - 1];
+		int[] polygon = new int[n];
+		long[] cross = new long[n];
+		boolean aboveEmpty = true;
+		for (int i = 1; i < n - 1; i++) {
+			int p = sorted[i];
+			cross[i] = ((long) xs[b] - xs[a]) * ((long) ys[p] - ys[a]) - ((long) ys[b] - ys[a]) * ((long) xs[p] - xs[a]);
+			if (cross[i] > 0)
+				aboveEmpty = false;
+		}
+		int lower = 0, upper = n;
+		for (int i = 0; i < n; i++) {
+			int p = sorted[i];
+			if (cross[i] > 0 || (cross[i] == 0 && aboveEmpty && i > 0 && i < n - 1))
+				polygon[--upper] = p;
+			else
+				polygon[lower++] = p;
+		}
+		return polygon;
+	}
+
+	/** Silence the messages printed by the computations, returning the previous output stream */
+	static PrintStream silence() {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		return out;
+	}
+
+	static RuntimeException rethrow(Throwable t) {
+		if (t instanceof RuntimeException)
+			return (RuntimeException) t;
+		if (t instanceof Error)
+			throw (Error) t;
+		return new IllegalStateException(t);
+	}
+}
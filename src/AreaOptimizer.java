@@ -1,3 +1,5 @@
+import java.util.ArrayList;
+
 import processing.core.PApplet;
 
 	/**
@@ -9,29 +11,34 @@ import processing.core.PApplet;
 	 */
 public class AreaOptimizer {
 
+	/**
+	 * Arguments: the input file, optionally the number of threads, and the option --headless
+	 * (no Processing viewer: the Processing classes are not even loaded, as with -Djava.awt.headless=true)
+	 */
 	public static void main(String[] args) {
 		System.out.println("Tools for the \"INF562 final evaluation\"");
-		if(args.length<1) {
+		boolean headless=Boolean.getBoolean("java.awt.headless");
+		ArrayList<String> arguments=new ArrayList<String>();
+		for(String argument: args) {
+			if(argument.equals("--headless"))
+				headless=true;
+			else
+				arguments.add(argument);
+		}
+		if(arguments.size()<1) {
 			System.out.println("Error: one argument required: input file storing 2D integer points");
 			System.exit(0);
 		}
 		
-		String inputFile=args[0]; // input file name
-		GridPoint_2[] points=PointCloud_IO.read(inputFile); // load input points from text file
-		int[] drawingBounds=PointCloud_IO.getBoundingBox(points); // get the bounding box [0..xmax]x[0..ymax]
-		
-		// set the input parameters for 2D rendering
-		PointCloudViewer.sizeX=600; // setting canvas width (number of pixels)
-		PointCloudViewer.sizeY=600; // setting canvas height (pixels)
-		PointCloudViewer.inputPoints=points; // set the input points for rendering in the PApplet
-		PointCloudViewer.drawingWidth=Math.max(drawingBounds[0], drawingBounds[1]); // setting the width of the drawing area (square area)
-		PointCloudViewer.drawingHeight=Math.max(drawingBounds[0], drawingBounds[1]);  // setting the height of the drawing area (square area)
-		
-		
+		String inputFile=arguments.get(0); // input file name
+		PackedPoints packedPoints=PointCloud_IO.readMapped(inputFile); // load input points from text file
+		int[] drawingBounds=PointCloud_IO.getBoundingBox(packedPoints); // get the bounding box [0..xmax]x[0..ymax]
 		
 		System.out.println("\n--- Starting computations ---");
 		// initialize the main class for computing optimal polygons
-		OptimalPolygon op=new OptimalPolygon(points);
+		OptimalPolygon op=new OptimalPolygon(packedPoints);
+		if(arguments.size()>1)
+			op.setParallelism(Integer.parseInt(arguments.get(1))); // optional second argument: number of threads
 		
 		int[] polygon = {0,9,7,8,6,3,1,2,4,9};
 		boolean isValidTest=op.checkValidity(polygon);
@@ -43,14 +50,14 @@ public class AreaOptimizer {
 
 		int[] minimal=op.computeMinimalAreaPolygon(); // compute the polygon of minimal area (this function MUST BE IMPLEMENTED)
 		boolean isValidMin=op.checkValidity(minimal); // check whether the polygon is valid (this function MUST BE IMPLEMENTED)
-		long areaMin=op.computeArea(minimal); // compute the area of the polygon (this function MUST BE IMPLEMENTED)
+		long areaMin=op.getMinimalArea(); // area of the polygon (maintained during its computation)
 		if(isValidMin==false)
 			System.out.println("The minimal polygon is not valid (or not defined)");
 		System.out.println("Area of the minimal polygon: "+areaMin);
 
 		int[] maximal=op.computeMaximalAreaPolygon(); // compute the polygon of maximal area (this function MUST BE IMPLEMENTED)
 		boolean isValidMax=op.checkValidity(maximal); 
-		long areaMax=op.computeArea(maximal); 
+		long areaMax=op.getMaximalArea(); 
 		if(isValidMax==false)
 			System.out.println("The maximal polygon is not valid (or not defined)");
 		System.out.println("Area of the maximal polygon: "+areaMax);
@@ -62,16 +69,31 @@ public class AreaOptimizer {
 			System.out.println("Polygon considered as invalid");
 		
 		// write the minimal/maximal polygons computed by your program to a text file
-		PointCloud_IO.write(minimal, inputFile.replace("instance", "min")); // the output file has the same prefix of the corresponding instance
-		PointCloud_IO.write(maximal, inputFile.replace("instance", "max")); // the output file has the same prefix of the corresponding instance
+		PointCloud_IO.write(minimal, inputFile.replace("instance", "min"), // the output files have the same prefix of the corresponding instance
+				maximal, inputFile.replace("instance", "max")); // (both files are written at the same time)
 		
-		// uncomment the line below to show in a Processing frame the 2D point cloud together with a polygon (minimal or maximal)
-		PointCloudViewer.optimalPolygon=polygon; // set the minimal polygon to be rendered
-		//PointCloudViewer.optimalPolygon=maximal; // uncomment this line to set the maximal polygon to be rendered
+		// show in a Processing frame the 2D point cloud together with a polygon (minimal or maximal)
+		if(!headless)
+			showViewer(packedPoints.toGridPoints(), drawingBounds, polygon); // replace 'polygon' by 'minimal' or 'maximal' to render them
+
+	}
+	
+	/**
+	 * Launch the Processing viewer. <br>
+	 * This is the only method referring to the Processing classes: they are loaded only if it is called.
+	 */
+	static void showViewer(GridPoint_2[] points, int[] drawingBounds, int[] polygon) {
+		// set the input parameters for 2D rendering
+		PointCloudViewer.sizeX=600; // setting canvas width (number of pixels)
+		PointCloudViewer.sizeY=600; // setting canvas height (pixels)
+		PointCloudViewer.inputPoints=points; // set the input points for rendering in the PApplet
+		PointCloudViewer.drawingWidth=Math.max(drawingBounds[0], drawingBounds[1]); // setting the width of the drawing area (square area)
+		PointCloudViewer.drawingHeight=Math.max(drawingBounds[0], drawingBounds[1]);  // setting the height of the drawing area (square area)
+		
+		PointCloudViewer.optimalPolygon=polygon; // set the polygon to be rendered
 		if(PointCloudViewer.optimalPolygon==null)
 			System.out.println("Warning: the polygon is not defined");
-		PApplet.main(new String[] { "PointCloudViewer" }); // launch the Processing viewer*/
-
+		PApplet.main(new String[] { "PointCloudViewer" }); // launch the Processing viewer
 	}
 
 }
@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless batch mode: computes the minimal and maximal area polygons of all the instances of a directory
+ * (or matching a glob pattern), in a single JVM and without the Processing viewer. <br>
+ *
+ * The minimal and maximal polygons of an instance are two independent tasks of a bounded pool of threads.
+ * The .min/.max files are written as soon as they are computed, and a CSV line summarizing an instance is
+ * printed as soon as both its polygons are done (the lines are thus not sorted). The messages of the
+ * computations are not printed. <br>
+ *
+ * All the lines have the same columns: the values of a failed computation are left empty, and the error
+ * messages are given in the last column (empty when everything went well).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class BatchSolver {
+
+	static final String HEADER = "instance,n,hull_area,min_area,min_valid,min_seconds,max_area,max_valid,max_seconds,error";
+	/** Empty values of a failed computation (area, validity, seconds) */
+	static final String NO_RESULT = ",,";
+
+	/** The results of an instance, printed when its two polygons are done */
+	class Instance {
+		String filename;
+		int n;
+		long hullArea;
+		String[] results = new String[2];
+		/** error messages of the two tasks (null if none) */
+		String[] errors = new String[2];
+		AtomicInteger remainingTasks = new AtomicInteger(2);
+
+		Instance(String filename) {
+			this.filename = filename;
+		}
+
+		void done(int task, String result, String error) {
+			this.results[task] = result;
+			this.errors[task] = error;
+			if (this.remainingTasks.decrementAndGet() == 0) {
+				String errors = this.errors[0] == null ? "" : "min: " + this.errors[0];
+				if (this.errors[1] != null)
+					errors += (errors.isEmpty() ? "" : " ") + "max: " + this.errors[1];
+				report(this.filename + "," + this.n + "," + this.hullArea + "," + this.results[0] + "," + this.results[1] + "," + errors);
+			}
+		}
+	}
+
+	/** Minimal (task 0) or maximal (task 1) area polygon of an instance */
+	class PolygonTask implements Runnable {
+		Instance instance;
+		OptimalPolygon op;
+		int task;
+
+		PolygonTask(Instance instance, OptimalPolygon op, int task) {
+			this.instance = instance;
+			this.op = op;
+			this.task = task;
+		}
+
+		public void run() {
+			String result, error = null;
+			try {
+				long startTime = System.nanoTime();
+				int[] polygon = this.task == 0 ? this.op.computeMinimalAreaPolygon() : this.op.computeMaximalAreaPolygon();
+				double duration = (System.nanoTime() - startTime) / 1000000000.;
+				PointCloud_IO.write(polygon, outputFile(this.instance.filename, this.task == 0 ? "min" : "max"));
+				long area = this.task == 0 ? this.op.getMinimalArea() : this.op.getMaximalArea();
+				result = area + "," + this.op.checkValidity(polygon) + "," + duration;
+			}
+			catch (Throwable e) {
+				result = NO_RESULT;
+				error = error(e);
+			}
+			finally {
+				slots.release();
+			}
+			this.instance.done(this.task, result, error);
+		}
+	}
+
+	PrintStream summary;
+	ExecutorService pool;
+	/**
+	 * Tasks running or waiting in the pool: at most 2 waiting per thread, so that the instances are loaded as
+	 * the pool progresses (the submission blocks, and the polygons are only computed by the threads of the pool)
+	 */
+	Semaphore slots;
+
+	/**
+	 * @param threads  number of threads of the pool
+	 * @param summary  where the CSV lines are printed
+	 */
+	public BatchSolver(int threads, PrintStream summary) {
+		this.summary = summary;
+		this.pool = Executors.newFixedThreadPool(threads);
+		this.slots = new Semaphore(3 * threads);
+	}
+
+	/**
+	 * Solve all the instances, and wait for the end of the computations
+	 */
+	public void solve(ArrayList<String> files) {
+		this.report(HEADER);
+		for (String filename : files) {
+			Instance instance = new Instance(filename);
+			OptimalPolygon op;
+			try {
+				PackedPoints points = PointCloud_IO.readMapped(filename);
+				op = new OptimalPolygon(points);
+				instance.n = points.size();
+				instance.hullArea = op.computeAreaConvexHull();
+			}
+			catch (Throwable e) {
+				this.report(filename + ",,," + NO_RESULT + "," + NO_RESULT + "," + error(e));
+				continue;
+			}
+			this.submit(new PolygonTask(instance, op, 0));
+			this.submit(new PolygonTask(instance, op, 1));
+		}
+		this.pool.shutdown();
+		try {
+			this.pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Wait for a free slot, and give the task to the pool (the task releases its slot) */
+	private void submit(PolygonTask task) {
+		this.slots.acquireUninterruptibly();
+		this.pool.execute(task);
+	}
+
+	synchronized void report(String line) {
+		this.summary.println(line);
+		this.summary.flush();
+	}
+
+	/** Error message, as a CSV field */
+	static String error(Throwable e) {
+		String message = e.getMessage() == null ? e.toString() : e.getMessage();
+		return message.replace(',', ';').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	/** instance file name, with the extension .instance replaced by the given one */
+	static String outputFile(String filename, String extension) {
+		if (filename.endsWith(".instance"))
+			filename = filename.substring(0, filename.length() - ".instance".length());
+		return filename + "." + extension;
+	}
+
+	/**
+	 * The .instance files of a directory, or the files matching a glob pattern (such as data/uniform-*.instance),
+	 * sorted by name
+	 */
+	public static ArrayList<String> listInstances(String directoryOrGlob) {
+		Path path = Paths.get(directoryOrGlob);
+		Path directory;
+		String glob;
+		if (Files.isDirectory(path)) {
+			directory = path;
+			glob = "*.instance";
+		}
+		else {
+			directory = path.getParent() == null ? Paths.get(".") : path.getParent();
+			glob = path.getFileName().toString();
+		}
+		ArrayList<String> files = new ArrayList<String>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			for (Path file : stream) {
+				if (Files.isRegularFile(file))
+					files.add(file.toString());
+			}
+		}
+		catch (IOException e) {
+			throw new Error("Error: cannot list the files " + directoryOrGlob);
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Arguments: a directory (or a glob pattern) of instances, and optionally the number of threads
+	 * (the number of processors by default)
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Error: one argument required: directory (or glob pattern) of the input files");
+			System.exit(0);
+		}
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		ArrayList<String> files = listInstances(args[0]);
+
+		PrintStream summary = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream())); // messages of the computations
+		new BatchSolver(threads, summary).solve(files);
+		System.setOut(summary);
+	}
+}
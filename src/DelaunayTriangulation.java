@@ -0,0 +1,231 @@
+
+/**
+ * Delaunay triangulation of the input points (exact predicates, see Predicates.orientation and Predicates.inCircle). <br>
+ *
+ * The points are inserted in lexicographic order (sweep): each new point lies outside the current convex hull,
+ * and is joined to the hull edges it sees, starting from the previous point (which is on the hull). The Delaunay
+ * property is then restored by Lawson flips. <br>
+ *
+ * Remark: the insertion order is not random, so there is no O(n log n) expected bound on the number of flips:
+ * it is Theta(n^2) in the worst case (a new point may end up joined to most of the previous ones). On our instances
+ * there are about 8 flips per point for 10k points (uniform and world), and 11 for 100k points.
+ * The triangulation is not constrained: no edge is forced into it. <br>
+ *
+ * The triangles are stored in arrays: the vertices of the triangle t are vertex[3t], vertex[3t+1], vertex[3t+2]
+ * (in ccw order), and neighbor[3t+i] is the triangle sharing its edge (vertex[3t+i], vertex[3t+(i+1)%3]),
+ * -1 if this edge is on the boundary.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class DelaunayTriangulation {
+
+	Predicates predicates;
+	int n;
+
+	int[] vertex, neighbor;
+	int triangles;
+
+	/** The convex hull, as a ccw ring (only valid for its vertices) */
+	int[] hullNext, hullPrev;
+	/** hullTriangle[v]: the triangle having the hull edge (v, hullNext[v]) */
+	int[] hullTriangle;
+
+	/** Edges opposite to the new point that must be checked (stack of triangle/edge pairs) */
+	int[] stack = new int[64];
+
+	/**
+	 * Triangulate the points (nothing is done if they are all collinear)
+	 */
+	public DelaunayTriangulation(OptimalPolygon op) {
+		this.predicates = op.predicates;
+		this.n = op.xs.length;
+		this.vertex = new int[3 * Math.max(1, 2 * this.n)];
+		this.neighbor = new int[3 * Math.max(1, 2 * this.n)];
+		this.hullNext = new int[this.n];
+		this.hullPrev = new int[this.n];
+		this.hullTriangle = new int[this.n];
+
+		int[] sortedPoints = new int[this.n];
+		for (int i = 0; i < this.n; i++)
+			sortedPoints[i] = i;
+		RadixSort.sortByCoordinates(op.xs, op.ys, sortedPoints, null, this.n);
+
+		// first non collinear point
+		int k = 2;
+		while (k < this.n && this.predicates.orientation(sortedPoints[0], sortedPoints[1], sortedPoints[k]) == 0)
+			k++;
+		if (k >= this.n)
+			return;
+		this.triangulateFan(sortedPoints, k);
+		int previous = sortedPoints[k];
+		for (int i = k + 1; i < this.n; i++) {
+			this.insert(sortedPoints[i], previous);
+			previous = sortedPoints[i];
+		}
+	}
+
+	/** Number of triangles */
+	public int size() {
+		return this.triangles;
+	}
+
+	/**
+	 * Initial triangulation: the collinear points sortedPoints[0..k-1] joined to sortedPoints[k]
+	 */
+	private void triangulateFan(int[] sortedPoints, int k) {
+		int apex = sortedPoints[k];
+		boolean left = this.predicates.orientation(sortedPoints[0], sortedPoints[1], apex) > 0;
+		for (int i = 0; i + 1 < k; i++) {
+			int a = sortedPoints[i], b = sortedPoints[i + 1];
+			int t = left ? this.newTriangle(a, b, apex) : this.newTriangle(b, a, apex);
+			if (i > 0) {
+				// shared edge (a, apex) with the previous triangle
+				this.neighbor[3 * t + (left ? 2 : 1)] = t - 1;
+				this.neighbor[3 * (t - 1) + (left ? 1 : 2)] = t;
+			}
+		}
+		for (int t = 0; t < this.triangles; t++)
+			this.updateHull(t);
+	}
+
+	/**
+	 * Insert the point p, lying outside the convex hull, 'previous' being a hull vertex seen by p
+	 */
+	private void insert(int p, int previous) {
+		// chain of the hull edges seen by p: from first to last (in ccw order)
+		int first = previous, last = previous;
+		while (this.predicates.orientation(this.hullPrev[first], first, p) < 0)
+			first = this.hullPrev[first];
+		while (this.predicates.orientation(last, this.hullNext[last], p) < 0)
+			last = this.hullNext[last];
+
+		// each new triangle is legalized before the next one is built: the flips only change the edges opposite
+		// to p, so the triangle t keeps its edge (p, b), shared with the next new triangle
+		int previousTriangle = -1;
+		for (int a = first; a != last; ) {
+			int b = this.hullNext[a];
+			int outer = this.hullTriangle[a];
+			int t = this.newTriangle(b, a, p);
+			this.neighbor[3 * t] = outer;
+			this.setNeighbor(outer, a, b, t);
+			if (previousTriangle >= 0) {
+				this.neighbor[3 * t + 1] = previousTriangle;
+				this.setNeighbor(previousTriangle, p, a, t);
+			}
+			// new hull edges (first, p) and (p, b), the last one being replaced by the next triangle
+			this.updateHull(t);
+			this.legalize(t, 0);
+			previousTriangle = t;
+			a = b;
+		}
+	}
+
+	private int newTriangle(int a, int b, int c) {
+		int t = this.triangles++;
+		this.vertex[3 * t] = a;
+		this.vertex[3 * t + 1] = b;
+		this.vertex[3 * t + 2] = c;
+		this.neighbor[3 * t] = this.neighbor[3 * t + 1] = this.neighbor[3 * t + 2] = -1;
+		return t;
+	}
+
+	/** In the triangle t, the neighbor across the edge (a, b) becomes u */
+	void setNeighbor(int t, int a, int b, int u) {
+		if (t < 0)
+			return;
+		for (int i = 0; i < 3; i++) {
+			if (this.vertex[3 * t + i] == a && this.vertex[3 * t + (i + 1) % 3] == b) {
+				this.neighbor[3 * t + i] = u;
+				return;
+			}
+		}
+		throw new Error("Error: edge not found in the triangulation");
+	}
+
+	/** Record the boundary edges of the triangle t as hull edges */
+	private void updateHull(int t) {
+		for (int i = 0; i < 3; i++) {
+			if (this.neighbor[3 * t + i] < 0) {
+				int a = this.vertex[3 * t + i], b = this.vertex[3 * t + (i + 1) % 3];
+				this.hullNext[a] = b;
+				this.hullPrev[b] = a;
+				this.hullTriangle[a] = t;
+			}
+		}
+	}
+
+	/**
+	 * Restore the Delaunay property around the edge i of the triangle t (the vertex opposite to this edge
+	 * being the new point): the edges are flipped as long as they are not locally Delaunay
+	 */
+	private void legalize(int t, int i) {
+		int size = 0;
+		this.stack[size++] = t;
+		this.stack[size++] = i;
+		while (size > 0) {
+			int edge = this.stack[--size];
+			int triangle = this.stack[--size];
+			int u = this.neighbor[3 * triangle + edge];
+			if (u < 0)
+				continue;
+			int a = this.vertex[3 * triangle + edge], b = this.vertex[3 * triangle + (edge + 1) % 3];
+			int c = this.vertex[3 * triangle + (edge + 2) % 3];
+			int w = this.opposite(u, b, a);
+			if (this.predicates.inCircle(a, b, c, w) <= 0)
+				continue;
+			this.flip(triangle, edge);
+			// the triangles are now (c, a, w) and (w, b, c): their edges opposite to c are checked
+			if (size + 4 > this.stack.length)
+				this.stack = java.util.Arrays.copyOf(this.stack, 2 * this.stack.length);
+			this.stack[size++] = triangle;
+			this.stack[size++] = 1;
+			this.stack[size++] = u;
+			this.stack[size++] = 0;
+		}
+	}
+
+	/** The vertex of the triangle u opposite to its edge (b, a) */
+	int opposite(int u, int b, int a) {
+		for (int j = 0; j < 3; j++) {
+			if (this.vertex[3 * u + j] == b && this.vertex[3 * u + (j + 1) % 3] == a)
+				return this.vertex[3 * u + (j + 2) % 3];
+		}
+		throw new Error("Error: edge not found in the triangulation");
+	}
+
+	/**
+	 * Flip the edge i = (a, b) of the triangle t = (a, b, c) shared with the triangle u = (b, a, w):
+	 * t becomes (c, a, w) and u becomes (w, b, c). The quadrilateral (a, w, b, c) must be convex.
+	 */
+	void flip(int t, int i) {
+		int u = this.neighbor[3 * t + i];
+		int a = this.vertex[3 * t + i], b = this.vertex[3 * t + (i + 1) % 3], c = this.vertex[3 * t + (i + 2) % 3];
+		int j = 0;
+		while (!(this.vertex[3 * u + j] == b && this.vertex[3 * u + (j + 1) % 3] == a))
+			j++;
+		int w = this.vertex[3 * u + (j + 2) % 3];
+		int nBC = this.neighbor[3 * t + (i + 1) % 3], nCA = this.neighbor[3 * t + (i + 2) % 3];
+		int nAW = this.neighbor[3 * u + (j + 1) % 3], nWB = this.neighbor[3 * u + (j + 2) % 3];
+
+		this.vertex[3 * t] = c;
+		this.vertex[3 * t + 1] = a;
+		this.vertex[3 * t + 2] = w;
+		this.neighbor[3 * t] = nCA;
+		this.neighbor[3 * t + 1] = nAW;
+		this.neighbor[3 * t + 2] = u;
+		this.vertex[3 * u] = w;
+		this.vertex[3 * u + 1] = b;
+		this.vertex[3 * u + 2] = c;
+		this.neighbor[3 * u] = nWB;
+		this.neighbor[3 * u + 1] = nBC;
+		this.neighbor[3 * u + 2] = t;
+		this.setNeighbor(nAW, w, a, t);
+		this.setNeighbor(nBC, c, b, u);
+		// the hull edges of the two triangles may have moved from one to the other
+		if (nAW < 0 || nBC < 0 || nCA < 0 || nWB < 0) {
+			this.updateHull(t);
+			this.updateHull(u);
+		}
+	}
+}
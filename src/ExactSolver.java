@@ -0,0 +1,281 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact solver for small instances: enumerates the simple polygons through all the points by branch and bound,
+ * and returns one of minimal (or maximal) area. <br>
+ *
+ * The polygons are built as paths starting from the first vertex h[0] of the convex hull. The vertices of the
+ * convex hull appear in every simple polygon in the same cyclic order as on the hull, so they must be visited
+ * in this order (which also fixes the orientation of the enumerated polygons). A branch is cut as soon as
+ * its last edge crosses the path. <br>
+ *
+ * Area bound: between two consecutive hull vertices h[k] and h[k+1], the polygon and the hull edge (h[k], h[k+1])
+ * enclose a pocket lying outside the polygon, and the area of the polygon is the area of the hull minus the areas
+ * of the pockets. The pockets already closed by the path are thus lost: a branch of the maximal area search is
+ * cut when the area of the hull minus the lost area cannot beat the best polygon found. <br>
+ *
+ * Remark: there is no such bound for the minimal area search (the polygon may still lose any part of the area
+ * left by the closed pockets): it is a plain enumeration of the simple polygons, only cut by the crossings, and
+ * its running time grows much faster with n than the one of the maximal area search. <br>
+ *
+ * The first levels of the search tree are split into tasks of a ForkJoinPool (work stealing), the deeper levels
+ * are explored sequentially. Among the optimal polygons, the smallest permutation (lexicographic order) is returned,
+ * so that the result does not depend on the number of threads.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class ExactSolver {
+
+	/** Largest number of points accepted by the solver (the search is exponential) */
+	static final int MAX_POINTS = 16;
+	/** Length of the paths from which the branches are explored sequentially */
+	static final int SPLIT_DEPTH = 4;
+
+	/** A path starting at h[0], with the data of each of its prefixes */
+	class State {
+		int[] path = new int[n];
+		boolean[] visited = new boolean[n];
+		/** fan[i]: twice the signed area of the triangles (h[0], path[j], path[j+1]) for j < i */
+		long[] fan = new long[n];
+		/** for the prefix path[0..i]: last hull vertex visited (index in the hull), and its position in the path */
+		int[] hullCount = new int[n], hullPosition = new int[n];
+		/** for the prefix path[0..i]: twice the area of the closed pockets */
+		long[] lost = new long[n];
+		int length;
+
+		State copy() {
+			State state = new State();
+			System.arraycopy(this.path, 0, state.path, 0, n);
+			System.arraycopy(this.visited, 0, state.visited, 0, n);
+			System.arraycopy(this.fan, 0, state.fan, 0, n);
+			System.arraycopy(this.hullCount, 0, state.hullCount, 0, n);
+			System.arraycopy(this.hullPosition, 0, state.hullPosition, 0, n);
+			System.arraycopy(this.lost, 0, state.lost, 0, n);
+			state.length = this.length;
+			return state;
+		}
+
+		/** Whether the point p can be appended to the path (and the branch is worth exploring) */
+		boolean canExtend(int p) {
+			int i = this.length;
+			if (this.visited[p])
+				return false;
+			if (hullIndex[p] >= 0 && hullIndex[p] != this.hullCount[i - 1] + 1)
+				return false; // the hull vertices are visited in order
+			int last = this.path[i - 1];
+			if (i >= 2 && overlaps(last, this.path[i - 2], p))
+				return false;
+			for (int j = 0; j + 2 < i; j++) {
+				if (op.doIntersect(last, p, this.path[j], this.path[j + 1]))
+					return false;
+			}
+			if (!minimize && hullIndex[p] >= 0) {
+				long bound = hullDoubleArea - this.lost[i - 1] - this.pocket(p);
+				if (bound < bestDoubleArea)
+					return false;
+			}
+			return true;
+		}
+
+		/** Twice the area of the pocket closed by appending the hull vertex p */
+		long pocket(int p) {
+			int i = this.length, k = this.hullPosition[i - 1];
+			long fan = this.fan[i - 1] + predicates.doubleTriangleArea(hull[0], this.path[i - 1], p);
+			return Math.abs(fan - this.fan[k] + predicates.doubleTriangleArea(hull[0], p, hull[this.hullCount[i - 1]]));
+		}
+
+		void extend(int p) {
+			int i = this.length;
+			nodes.increment();
+			this.lost[i] = this.lost[i - 1];
+			this.hullCount[i] = this.hullCount[i - 1];
+			this.hullPosition[i] = this.hullPosition[i - 1];
+			if (hullIndex[p] >= 0) {
+				this.lost[i] += this.pocket(p);
+				this.hullCount[i] = hullIndex[p];
+				this.hullPosition[i] = i;
+			}
+			this.fan[i] = this.fan[i - 1] + predicates.doubleTriangleArea(hull[0], this.path[i - 1], p);
+			this.path[i] = p;
+			this.visited[p] = true;
+			this.length++;
+		}
+
+		void retract() {
+			this.length--;
+			this.visited[this.path[this.length]] = false;
+		}
+
+		/** Explore all the completions of the path (sequentially) */
+		void search() {
+			if (this.length == n) {
+				this.close();
+				return;
+			}
+			for (int p = 0; p < n; p++) {
+				if (this.canExtend(p)) {
+					this.extend(p);
+					this.search();
+					this.retract();
+				}
+			}
+		}
+
+		/** The path goes through all the points: check the closing edge (path[n-1], h[0]) */
+		void close() {
+			int last = this.path[n - 1];
+			if (this.hullCount[n - 1] != hull.length - 1)
+				return;
+			if (overlaps(last, this.path[n - 2], hull[0]) || overlaps(hull[0], this.path[1], last))
+				return;
+			for (int j = 1; j + 2 < n; j++) {
+				if (op.doIntersect(last, hull[0], this.path[j], this.path[j + 1]))
+					return;
+			}
+			offer(this.path, Math.abs(this.fan[n - 1]));
+		}
+	}
+
+	/** The branches starting with a given path: split among the workers, or explored sequentially */
+	class Branch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		State state;
+
+		Branch(State state) {
+			this.state = state;
+		}
+
+		protected void compute() {
+			if (this.state.length >= SPLIT_DEPTH || this.state.length == n) {
+				this.state.search();
+				return;
+			}
+			ArrayList<Branch> children = new ArrayList<Branch>();
+			for (int p = 0; p < n; p++) {
+				if (this.state.canExtend(p)) {
+					State child = this.state.copy();
+					child.extend(p);
+					children.add(new Branch(child));
+				}
+			}
+			invokeAll(children);
+		}
+	}
+
+	OptimalPolygon op;
+	Predicates predicates;
+	boolean minimize;
+	int n;
+
+	/** Vertices of the convex hull (without the points lying on its edges), hullIndex[p] = -1 if p is not one of them */
+	int[] hull;
+	int[] hullIndex;
+	long hullDoubleArea;
+
+	/** Best polygon found so far, and twice its area */
+	int[] best;
+	volatile long bestDoubleArea;
+	LongAdder nodes = new LongAdder();
+
+	public ExactSolver(OptimalPolygon op, boolean minimize) {
+		this.op = op;
+		this.predicates = op.predicates;
+		this.minimize = minimize;
+		this.n = op.xs.length;
+		if (this.n > MAX_POINTS)
+			throw new Error("Error: too many points for the exact solver: " + this.n + " (at most " + MAX_POINTS + ")");
+	}
+
+	/**
+	 * Run the search in a pool of 'threads' threads
+	 *
+	 * @return an optimal polygon (null if there is no simple polygon through the points)
+	 */
+	public int[] run(int threads) {
+		if (this.n < 3)
+			return null;
+		this.computeHull();
+		if (this.hull.length < 3)
+			return null; // the points are collinear
+		// any simple polygon gives the first bound
+		int[] polygon = this.op.computeMonotonePolygon();
+		if (this.op.checkValidity(polygon)) {
+			this.best = polygon;
+			this.bestDoubleArea = Math.abs(this.predicates.doubleSignedArea(polygon));
+		}
+		else
+			this.bestDoubleArea = this.minimize ? Long.MAX_VALUE : -1;
+
+		State root = new State();
+		root.path[0] = this.hull[0];
+		root.visited[this.hull[0]] = true;
+		root.length = 1;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new Branch(root));
+		}
+		finally {
+			pool.shutdown();
+		}
+		return this.best;
+	}
+
+	/** Number of nodes of the search tree explored by the last run */
+	public long getNodes() {
+		return this.nodes.sum();
+	}
+
+	/** Area of the best polygon found */
+	public long getArea() {
+		return this.best == null ? -1 : this.bestDoubleArea / 2;
+	}
+
+	/** A complete polygon: keep it if it is better (or as good, and smaller in lexicographic order) */
+	synchronized void offer(int[] path, long doubleArea) {
+		boolean better = this.minimize ? doubleArea < this.bestDoubleArea : doubleArea > this.bestDoubleArea;
+		if (better || (doubleArea == this.bestDoubleArea && this.isSmaller(path, this.best))) {
+			this.best = path.clone();
+			this.bestDoubleArea = doubleArea;
+		}
+	}
+
+	private boolean isSmaller(int[] polygon1, int[] polygon2) {
+		if (polygon2 == null)
+			return true;
+		for (int i = 0; i < this.n; i++) {
+			if (polygon1[i] != polygon2[i])
+				return polygon1[i] < polygon2[i];
+		}
+		return false;
+	}
+
+	/** Vertices of the convex hull, the points lying inside its edges being removed */
+	private void computeHull() {
+		int[] convexHull = this.op.computeConvexHull();
+		int size = convexHull.length;
+		this.hullIndex = new int[this.n];
+		Arrays.fill(this.hullIndex, -1);
+		int[] vertices = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			int u = convexHull[(i + size - 1) % size], v = convexHull[i], w = convexHull[(i + 1) % size];
+			if (this.predicates.orientation(u, v, w) != 0) {
+				this.hullIndex[v] = count;
+				vertices[count++] = v;
+			}
+		}
+		this.hull = Arrays.copyOf(vertices, count);
+		this.hullDoubleArea = Math.abs(this.predicates.doubleSignedArea(this.hull));
+	}
+
+	/** Whether the segments (p, q) and (p, r) overlap (they are collinear and on the same side of p) */
+	private boolean overlaps(int p, int q, int r) {
+		return this.predicates.orientation(p, q, r) == 0 && this.predicates.dotProductSign(p, q, r) > 0;
+	}
+}
@@ -48,9 +48,9 @@ public class GridPoint_2{
     return Math.sqrt((double)this.squareDistance(p));
   }
   
-  public int squareDistance(GridPoint_2 p) {
-    int dX=p.getCartesian(0)-x;
-    int dY=p.getCartesian(1)-y;
+  public long squareDistance(GridPoint_2 p) {
+    long dX=(long)p.getCartesian(0)-x;
+    long dY=(long)p.getCartesian(1)-y;
     return dX*dX+dY*dY;
   }
 
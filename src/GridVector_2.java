@@ -54,9 +54,9 @@ public class GridVector_2{
   	return new GridVector_2(-x,-y);  	
   }
   
-  public int innerProduct(GridVector_2 v) {
-  	return this.x*v.x+
-  		   this.y*v.y;  	
+  public long innerProduct(GridVector_2 v) {
+  	return (long)this.x*v.x+
+  		   (long)this.y*v.y;  	
   }
 
   /*public Vector_2 divisionByScalar(Number s) {
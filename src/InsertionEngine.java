@@ -0,0 +1,540 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Incremental version of the greedy insertion heuristic used for the minimal and maximal area polygons. <br>
+ *
+ * Starting from the convex hull, the point/edge pair with the best empty triangle is inserted at each step:
+ * the largest one for the minimal area polygon, the smallest one for the maximal area polygon (see InsertionScore).
+ * Instead of rescanning all the (remaining point x polygon edge) pairs at each step, every edge of the polygon
+ * keeps its best candidate in a heap ordered by the score: after an insertion only the split edge and the
+ * two new edges are recomputed. <br>
+ *
+ * Remark: in order to produce exactly the same polygons as the full rescan, we remember why the candidates
+ * better than the best one of an edge were rejected (a remaining point lying in the triangle, or a polygon
+ * edge crossed by the new edges). Such a candidate is checked again as soon as its obstacle disappears.
+ * Candidates that became invalid are detected lazily, when they reach the top of the heap. <br>
+ *
+ * When a pool is given, the scan of the remaining points done for an edge is split among its workers
+ * (see CandidateScan): the resulting polygon is the same as the sequential one. <br>
+ *
+ * The candidates are stored in a binary heap of parallel primitive arrays, and the sequential scan reuses
+ * the same buffers, so that the insertion loop does not allocate.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class InsertionEngine {
+
+	/** Minimal area polygon: the largest triangles are inserted first */
+	public static final InsertionScore LARGEST_TRIANGLE = new InsertionScore() {
+		public boolean isBetter(long area1, long area2) {
+			return area1 > area2;
+		}
+		public boolean insertWhenStuck() {
+			return false;
+		}
+	};
+
+	/** Maximal area polygon: the smallest triangles are inserted first */
+	public static final InsertionScore SMALLEST_TRIANGLE = new InsertionScore() {
+		public boolean isBetter(long area1, long area2) {
+			return area1 < area2;
+		}
+		public boolean insertWhenStuck() {
+			return true;
+		}
+	};
+
+	static final int NO_OBSTACLE = -1;
+
+	/** Minimal number of remaining points scanned by a worker of the pool */
+	static final int SCAN_GRAIN = 512;
+
+	/** The scan of the remaining points checks the deadline every DEADLINE_CHECK + 1 points */
+	static final int DEADLINE_CHECK = 1023;
+
+	/**
+	 * Scan of the remaining points get(from) .. get(to-1), looking for the best candidate for the edge (a, b)
+	 * coming after the bound (see recompute). <br>
+	 * Large ranges are split in two halves scanned in parallel, the best candidate being the better of the
+	 * two local ones: since candidates are totally ordered by (area, point), the result does not depend on the split.
+	 * The rejected candidates are collected (as pairs (obstacle, point)) and registered by the caller.
+	 */
+	class CandidateScan extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		int from, to, a, b;
+		long boundArea;
+		int boundPoint;
+
+		long area;
+		int point = -1;
+		/** allocated at the first rejected candidate (the sequential scan keeps it from one edge to the next) */
+		int[] rejected;
+		int rejectedSize;
+
+		CandidateScan(int from, int to, int a, int b, long boundArea, int boundPoint) {
+			this.reset(from, to, a, b, boundArea, boundPoint);
+		}
+
+		void reset(int from, int to, int a, int b, long boundArea, int boundPoint) {
+			this.from = from;
+			this.to = to;
+			this.a = a;
+			this.b = b;
+			this.boundArea = boundArea;
+			this.boundPoint = boundPoint;
+			this.area = 0;
+			this.point = -1;
+			this.rejectedSize = 0;
+		}
+
+		protected void compute() {
+			if (pool == null || this.to - this.from <= SCAN_GRAIN) {
+				this.scan();
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			CandidateScan left = new CandidateScan(this.from, middle, this.a, this.b, this.boundArea, this.boundPoint);
+			CandidateScan right = new CandidateScan(middle, this.to, this.a, this.b, this.boundArea, this.boundPoint);
+			invokeAll(left, right);
+
+			CandidateScan best = right.point >= 0 && isBetter(right.area, right.point, left.area, left.point) ? right : left;
+			this.area = best.area;
+			this.point = best.point;
+			this.rejectedSize = left.rejectedSize + right.rejectedSize;
+			if (this.rejectedSize > 0) {
+				this.rejected = new int[this.rejectedSize];
+				if (left.rejectedSize > 0)
+					System.arraycopy(left.rejected, 0, this.rejected, 0, left.rejectedSize);
+				if (right.rejectedSize > 0)
+					System.arraycopy(right.rejected, 0, this.rejected, left.rejectedSize, right.rejectedSize);
+			}
+		}
+
+		private void scan() {
+			for (int i = this.from; i < this.to; i++) {
+				if ((i & DEADLINE_CHECK) == 0 && expired())
+					return;
+				int p = remaining.get(i);
+				long currentArea = op.computeTriangleArea(p, this.a, this.b);
+				if (isBetter(currentArea, p, this.area, this.point) && (this.boundPoint < 0 || isBetter(this.boundArea, this.boundPoint, currentArea, p))) {
+					int obstacle = findObstacle(p, this.a, this.b);
+					if (obstacle == NO_OBSTACLE) {
+						this.area = currentArea;
+						this.point = p;
+					}
+					else {
+						if (this.rejected == null)
+							this.rejected = new int[8];
+						else if (this.rejectedSize == this.rejected.length)
+							this.rejected = Arrays.copyOf(this.rejected, 2 * this.rejectedSize);
+						this.rejected[this.rejectedSize] = obstacle;
+						this.rejected[this.rejectedSize + 1] = p;
+						this.rejectedSize += 2;
+					}
+				}
+			}
+		}
+	}
+
+	OptimalPolygon op;
+	InsertionScore score;
+	int n;
+	/** Pool used to scan the remaining points, null for a sequential run */
+	ForkJoinPool pool;
+
+	/** The polygon: its first vertex never changes since points are inserted after it */
+	PolygonRing polygon;
+	/** Twice the signed area of the polygon, updated at each insertion */
+	long doubleArea;
+	/** The computed polygon, once the insertion is done */
+	int[] result;
+	/** Spatial index of the polygon edges, for the crossing test */
+	SegmentGrid edgeGrid;
+
+	/** Points not inserted yet */
+	IntSet remaining;
+	/** Spatial index of the remaining points, for the empty triangle test */
+	PointGrid remainingGrid;
+
+	/** Incremented each time the edge (v, next[v]) is split */
+	int[] edgeVersion;
+	/** Best valid candidate of the edge (v, next[v]), -1 if there is none */
+	int[] bestPoint;
+	long[] bestArea;
+	int[] bestStamp;
+	int stamps;
+
+	/**
+	 * pointWatchers[q]: candidates rejected because q lies in their triangle,
+	 * stored as triples (edge, version of the edge, point)
+	 */
+	int[][] pointWatchers;
+	int[] pointWatchersSize;
+	/** edgeWatchers[c]: candidates rejected because of a crossing with the edge (c, next[c]) */
+	int[][] edgeWatchers;
+	int[] edgeWatchersSize;
+
+	/**
+	 * Heap of the candidates (best triangles first, ties broken by point index as in the full rescan):
+	 * the best point of an edge (given by its first vertex, in ccw order), the candidate being outdated when
+	 * its stamp differs from the one of the edge
+	 */
+	long[] heapArea;
+	int[] heapPoint, heapEdge, heapStamp;
+	int heapSize;
+
+	/** Candidates of the same area popped by selectBest (same layout as the heap) */
+	int[] tiedPoint, tiedEdge, tiedStamp;
+	/** Scan of the remaining points for a sequential recompute */
+	CandidateScan scan = new CandidateScan(0, 0, 0, 0, 0, -1);
+
+	/** The insertion stops when System.nanoTime() goes past the deadline (no deadline by default) */
+	long deadline = Long.MAX_VALUE;
+	/** Set once the deadline has passed (possibly by a worker of the pool) */
+	volatile boolean stopped;
+
+	public InsertionEngine(OptimalPolygon op, InsertionScore score) {
+		this(op, score, null);
+	}
+
+	public InsertionEngine(OptimalPolygon op, InsertionScore score, ForkJoinPool pool) {
+		this.op = op;
+		this.pool = pool;
+		this.score = score;
+		this.n = op.xs.length;
+		this.remaining = new IntSet(n);
+		this.edgeVersion = new int[n];
+		this.bestPoint = new int[n];
+		this.bestArea = new long[n];
+		this.bestStamp = new int[n];
+		this.pointWatchers = new int[n][];
+		this.pointWatchersSize = new int[n];
+		this.edgeWatchers = new int[n][];
+		this.edgeWatchersSize = new int[n];
+		this.heapArea = new long[16];
+		this.heapPoint = new int[16];
+		this.heapEdge = new int[16];
+		this.heapStamp = new int[16];
+		this.tiedPoint = new int[16];
+		this.tiedEdge = new int[16];
+		this.tiedStamp = new int[16];
+	}
+
+	/**
+	 * Set the time (as given by System.nanoTime()) after which the insertion stops: the polygon is then incomplete
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Whether the polygon goes through all the points (the insertion has neither been stuck nor stopped by the deadline)
+	 */
+	public boolean isComplete() {
+		return this.polygon != null && !this.stopped && this.remaining.isEmpty();
+	}
+
+	/** Whether the deadline has passed: the insertion must stop */
+	boolean expired() {
+		if (!this.stopped && this.deadline != Long.MAX_VALUE && System.nanoTime() - this.deadline > 0)
+			this.stopped = true;
+		return this.stopped;
+	}
+
+	/**
+	 * Run the greedy insertion, starting from the convex hull of the input points
+	 *
+	 * @return  an array of size 'n' storing the computed polygon as a permutation of point indices
+	 * (when the deadline stops the insertion, the points inserted so far, null if the hull is not built yet)
+	 */
+	public int[] run() {
+		int[] hull = this.op.computeConvexHull(this.deadline);
+		if (hull == null) {
+			this.stopped = true;
+			return null;
+		}
+		this.polygon = new PolygonRing(this.n, hull, hull.length);
+		this.doubleArea = this.op.predicates.doubleSignedArea(hull);
+		this.edgeGrid = new SegmentGrid(this.op.packedPoints);
+		for (int i = 0; i < hull.length; i++)
+			this.edgeGrid.add(hull[i], hull[(i + 1) % hull.length]);
+		for (int p = 0; p < this.n; p++) {
+			if (!this.polygon.contains(p))
+				this.remaining.add(p);
+		}
+		if (!this.expired())
+			this.remainingGrid = new PointGrid(this.op.packedPoints, this.remaining);
+		for (int i = 0; i < hull.length && !this.expired(); i++)
+			this.recompute(hull[i], 0, -1);
+
+		while (!this.remaining.isEmpty()) {
+			if (this.expired())
+				break;
+			int best = this.selectBest();
+			if (this.stopped)
+				break; // the candidates have not all been scanned
+			if (best >= 0) {
+				this.insert(this.tiedPoint[best], this.tiedEdge[best]);
+				continue;
+			}
+			System.out.println("Did not found any candidate");
+			if (!this.score.insertWhenStuck()) {
+				ArrayList<Integer> left = new ArrayList<Integer>(this.remaining.size());
+				for (int i = 0; i < this.remaining.size(); i++)
+					left.add(this.remaining.get(i));
+				Collections.sort(left);
+				System.out.println(left);
+				break;
+			}
+			this.insert(this.remaining.min(), this.polygon.start());
+		}
+
+		this.result = this.polygon.toArray(this.n);
+		return this.result;
+	}
+
+	/**
+	 * Area of the current polygon (O(1): the area is updated at each insertion)
+	 */
+	public long getArea() {
+		return Math.abs(this.doubleArea) / 2;
+	}
+
+	/**
+	 * Pop the best valid candidate from the heap: among the candidates of best area, the one having the
+	 * smallest point index, and then the edge appearing first in the polygon (same order as the full rescan).
+	 *
+	 * @return the position of the selected candidate in tiedPoint, tiedEdge, or -1 if no edge admits a valid insertion
+	 */
+	private int selectBest() {
+		int tied = 0;
+		long tiedArea = 0;
+		while (this.heapSize > 0 && !this.stopped) {
+			long area = this.heapArea[0];
+			int point = this.heapPoint[0], edge = this.heapEdge[0], stamp = this.heapStamp[0];
+			if (tied > 0 && area != tiedArea)
+				break;
+			this.poll();
+			if (stamp != this.bestStamp[edge])
+				continue; // outdated entry
+			if (!this.polygon.contains(point)) {
+				int obstacle = this.findObstacle(point, edge, this.polygon.next(edge));
+				if (obstacle == NO_OBSTACLE) {
+					if (tied == this.tiedPoint.length) {
+						this.tiedPoint = Arrays.copyOf(this.tiedPoint, 2 * tied);
+						this.tiedEdge = Arrays.copyOf(this.tiedEdge, 2 * tied);
+						this.tiedStamp = Arrays.copyOf(this.tiedStamp, 2 * tied);
+					}
+					this.tiedPoint[tied] = point;
+					this.tiedEdge[tied] = edge;
+					this.tiedStamp[tied] = stamp;
+					tiedArea = area;
+					tied++;
+					continue;
+				}
+				this.watch(obstacle, edge, point);
+			}
+			// the candidate is no longer valid: look for the next best one of its edge
+			this.recompute(edge, area, point);
+		}
+		if (tied == 0)
+			return -1;
+
+		int best = 0;
+		for (int i = 1; i < tied; i++) {
+			int p = this.tiedPoint[i], bestP = this.tiedPoint[best];
+			if (p < bestP || (p == bestP && this.polygon.positionOf(this.tiedEdge[i]) < this.polygon.positionOf(this.tiedEdge[best])))
+				best = i;
+		}
+		for (int i = 0; i < tied; i++) {
+			if (i != best)
+				this.push(tiedArea, this.tiedPoint[i], this.tiedEdge[i], this.tiedStamp[i]);
+		}
+		return best;
+	}
+
+	/**
+	 * Insert the point p between the vertices e and next[e]
+	 */
+	private void insert(int p, int e) {
+		int b = this.polygon.next(e);
+		// the edge (e, b) is replaced by (e, p) and (p, b): the signed area of the triangle (e, p, b) is added
+		this.doubleArea += this.op.predicates.doubleTriangleArea(e, p, b);
+		this.polygon.insertAfter(e, p);
+		this.edgeGrid.remove(e);
+		this.edgeGrid.add(e, p);
+		this.edgeGrid.add(p, b);
+		this.remaining.remove(p);
+		this.remainingGrid.remove(p);
+
+		// the edge (e, b) has been split and p has left the remaining points
+		this.edgeVersion[e]++;
+		this.wakeUp(this.edgeWatchers, this.edgeWatchersSize, e);
+		this.wakeUp(this.pointWatchers, this.pointWatchersSize, p);
+		this.recompute(e, 0, -1);
+		this.recompute(p, 0, -1);
+	}
+
+	/** Whether the candidate (area1, p1) comes before (area2, p2), a point -1 standing for no candidate (p1 >= 0) */
+	private boolean isBetter(long area1, int p1, long area2, int p2) {
+		if (p2 < 0)
+			return true;
+		return this.score.isBetter(area1, area2) || (area1 == area2 && p1 < p2);
+	}
+
+	/**
+	 * Compute the best candidate for the edge (e, next[e]) among the ones coming after (boundArea, boundPoint),
+	 * and push it in the heap (boundPoint is -1 when all the candidates are considered). <br>
+	 * The rejected candidates are registered on their obstacle (the ones before the bound are already registered).
+	 */
+	private void recompute(int e, long boundArea, int boundPoint) {
+		CandidateScan scan;
+		if (this.pool == null || this.remaining.size() <= SCAN_GRAIN) {
+			scan = this.scan;
+			scan.reset(0, this.remaining.size(), e, this.polygon.next(e), boundArea, boundPoint);
+			scan.compute();
+		}
+		else {
+			scan = new CandidateScan(0, this.remaining.size(), e, this.polygon.next(e), boundArea, boundPoint);
+			this.pool.invoke(scan);
+		}
+		for (int i = 0; i < scan.rejectedSize; i += 2)
+			this.watch(scan.rejected[i], e, scan.rejected[i + 1]);
+		this.setBest(e, scan.area, scan.point);
+	}
+
+	private void setBest(int e, long area, int point) {
+		this.bestPoint[e] = point;
+		this.bestArea[e] = area;
+		this.bestStamp[e] = ++this.stamps;
+		if (point >= 0)
+			this.push(area, point, e, this.bestStamp[e]);
+	}
+
+	/** Move the heap entry j to the position i */
+	private void move(int j, int i) {
+		this.heapArea[i] = this.heapArea[j];
+		this.heapPoint[i] = this.heapPoint[j];
+		this.heapEdge[i] = this.heapEdge[j];
+		this.heapStamp[i] = this.heapStamp[j];
+	}
+
+	private void set(int i, long area, int point, int edge, int stamp) {
+		this.heapArea[i] = area;
+		this.heapPoint[i] = point;
+		this.heapEdge[i] = edge;
+		this.heapStamp[i] = stamp;
+	}
+
+	/** Add a candidate to the heap (sift up) */
+	private void push(long area, int point, int edge, int stamp) {
+		if (this.heapSize == this.heapArea.length) {
+			int capacity = 2 * this.heapSize;
+			this.heapArea = Arrays.copyOf(this.heapArea, capacity);
+			this.heapPoint = Arrays.copyOf(this.heapPoint, capacity);
+			this.heapEdge = Arrays.copyOf(this.heapEdge, capacity);
+			this.heapStamp = Arrays.copyOf(this.heapStamp, capacity);
+		}
+		int k = this.heapSize++;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (!this.isBetter(area, point, this.heapArea[parent], this.heapPoint[parent]))
+				break;
+			this.move(parent, k);
+			k = parent;
+		}
+		this.set(k, area, point, edge, stamp);
+	}
+
+	/** Remove the top of the heap (sift down of the last entry) */
+	private void poll() {
+		int size = --this.heapSize;
+		if (size == 0)
+			return;
+		long area = this.heapArea[size];
+		int point = this.heapPoint[size], edge = this.heapEdge[size], stamp = this.heapStamp[size];
+		int k = 0, half = size >>> 1;
+		while (k < half) {
+			int child = 2 * k + 1, right = child + 1;
+			if (right < size && this.isBetter(this.heapArea[right], this.heapPoint[right], this.heapArea[child], this.heapPoint[child]))
+				child = right;
+			if (!this.isBetter(this.heapArea[child], this.heapPoint[child], area, point))
+				break;
+			this.move(child, k);
+			k = child;
+		}
+		this.set(k, area, point, edge, stamp);
+	}
+
+	/**
+	 * Check whether p can be inserted between a and b (same test as OptimalPolygon.okToAddThisPoint)
+	 *
+	 * @return NO_OBSTACLE if the insertion is valid, a remaining point q lying in the triangle (p, a, b),
+	 * or -2-c if one of the new edges crosses the polygon edge starting at c
+	 */
+	private int findObstacle(int p, int a, int b) {
+		// large triangles are usually rejected because of the points they contain: this test comes first
+		int q = this.remainingGrid.findInTriangle(this.op, p, a, b);
+		if (q >= 0)
+			return q;
+
+		int c = this.edgeGrid.findCrossing(this.op, a, p);
+		if (c < 0)
+			c = this.edgeGrid.findCrossing(this.op, b, p);
+		if (c >= 0)
+			return -c - 2;
+		return NO_OBSTACLE;
+	}
+
+	/** Register the candidate (p, e) as waiting for the removal of the obstacle */
+	private void watch(int obstacle, int e, int p) {
+		if (obstacle >= 0)
+			this.watch(this.pointWatchers, this.pointWatchersSize, obstacle, e, p);
+		else
+			this.watch(this.edgeWatchers, this.edgeWatchersSize, -obstacle - 2, e, p);
+	}
+
+	private void watch(int[][] watchers, int[] watchersSize, int obstacle, int e, int p) {
+		int[] list = watchers[obstacle];
+		int k = watchersSize[obstacle];
+		if (list == null)
+			list = watchers[obstacle] = new int[6];
+		else if (k == list.length)
+			list = watchers[obstacle] = Arrays.copyOf(list, 2 * k);
+		list[k] = e;
+		list[k + 1] = this.edgeVersion[e];
+		list[k + 2] = p;
+		watchersSize[obstacle] = k + 3;
+	}
+
+	/**
+	 * The obstacle has been removed: check again the candidates waiting for it,
+	 * the ones that are still better than the best point of their edge
+	 */
+	private void wakeUp(int[][] watchers, int[] watchersSize, int obstacle) {
+		int[] list = watchers[obstacle];
+		int k = watchersSize[obstacle];
+		watchers[obstacle] = null;
+		watchersSize[obstacle] = 0;
+		for (int i = 0; i < k; i += 3) {
+			int e = list[i], p = list[i + 2];
+			if (this.edgeVersion[e] != list[i + 1] || this.polygon.contains(p))
+				continue; // the edge has been split, or the point inserted
+			int b = this.polygon.next(e);
+			long currentArea = this.op.computeTriangleArea(p, e, b);
+			if (!this.isBetter(currentArea, p, this.bestArea[e], this.bestPoint[e]))
+				continue;
+			int newObstacle = this.findObstacle(p, e, b);
+			if (newObstacle == NO_OBSTACLE)
+				this.setBest(e, currentArea, p);
+			else
+				this.watch(newObstacle, e, p);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+
+/**
+ * Scoring strategy for the greedy insertion (see InsertionEngine): tells which triangle (point, edge)
+ * should be inserted first in the polygon.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public interface InsertionScore {
+
+	/** Whether a triangle of area 'area1' should be inserted before a triangle of area 'area2' */
+	public boolean isBetter(long area1, long area2);
+
+	/**
+	 * Whether the insertion goes on when no edge admits a valid candidate: the remaining point of smallest
+	 * index is then inserted after the first vertex of the polygon (otherwise the insertion stops)
+	 */
+	public boolean insertWhenStuck();
+}
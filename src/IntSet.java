@@ -0,0 +1,68 @@
+
+/**
+ * A set of integers in [0..n-1] supporting insertion, deletion and membership in constant time. <br>
+ *
+ * The elements are stored in elements[0..size-1] (in no particular order): a deleted element is replaced
+ * by the last one.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class IntSet {
+
+	int[] elements;
+	/** position of each integer in elements, -1 if it does not belong to the set */
+	int[] position;
+	int size;
+
+	public IntSet(int n) {
+		this.elements = new int[n];
+		this.position = new int[n];
+		java.util.Arrays.fill(this.position, -1);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/** The i-th element of the set, for 0 <= i < size() */
+	public int get(int i) {
+		return this.elements[i];
+	}
+
+	public boolean contains(int p) {
+		return this.position[p] >= 0;
+	}
+
+	public void add(int p) {
+		if (this.position[p] >= 0)
+			return;
+		this.elements[this.size] = p;
+		this.position[p] = this.size;
+		this.size++;
+	}
+
+	public void remove(int p) {
+		int i = this.position[p];
+		if (i < 0)
+			return;
+		int last = this.elements[--this.size];
+		this.elements[i] = last;
+		this.position[last] = i;
+		this.position[p] = -1;
+	}
+
+	/** The smallest element of the set (linear time), -1 if the set is empty */
+	public int min() {
+		int min = -1;
+		for (int i = 0; i < this.size; i++) {
+			if (min < 0 || this.elements[i] < min)
+				min = this.elements[i];
+		}
+		return min;
+	}
+}
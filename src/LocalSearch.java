@@ -0,0 +1,262 @@
+import java.util.Random;
+
+/**
+ * Local search improving the area of a simple polygon (computed for instance by the greedy insertion). <br>
+ *
+ * Two kinds of moves are tried on random vertices: <br>
+ * 	-) relocation: a vertex v is removed from the polygon (its neighbors are joined) and inserted in an edge
+ * going through the same cell of the edge grid; <br>
+ * 	-) 2-opt: the edges (a, b) and (c, d) are replaced by (a, c) and (b, d), the chain from b to c
+ * (at most MAX_CHAIN edges) being reversed. <br>
+ * The area variation of a move is computed first in O(1) (O(MAX_CHAIN) for 2-opt) from triangle areas:
+ * only the accepted moves (the ones improving the area) are checked for crossings, using a SegmentGrid
+ * of the polygon edges.
+ * So the polygon stays simple, and its area is updated incrementally.
+ *
+ * The search stops when the time budget runs out, or when no move has been accepted for a while. <br>
+ *
+ * With a positive temperature, moves making the area worse are also accepted, with the probability
+ * exp(-loss / temperature) of the Metropolis criterion (see SimulatedAnnealing).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class LocalSearch {
+
+	/** Maximal number of edges of a chain reversed by a 2-opt move */
+	static final int MAX_CHAIN = 8;
+	/** Number of moves tried between two checks of the clock */
+	static final int MOVES_PER_CHECK = 256;
+	/** The search stops after PATIENCE * n consecutive rejected moves */
+	static final int PATIENCE = 50;
+	/**
+	 * Largest number of polygon edges tested by a crossing search of the grid: a move whose new edges go through
+	 * crowded cells (such as the ones crossed by the long edges of the x-monotone or star-shaped polygons) is rejected
+	 */
+	static final int MAX_GRID_EDGES = 256;
+
+	OptimalPolygon op;
+	Predicates predicates;
+	/** true for the minimal area polygon, false for the maximal area polygon */
+	boolean minimize;
+	int n;
+
+	PolygonRing polygon;
+	/** Spatial index of the polygon edges, for the crossing tests */
+	SegmentGrid edgeGrid;
+	/** Twice the signed area of the polygon */
+	long doubleArea;
+
+	Random random;
+	/** Temperature of the Metropolis criterion, in units of twice the area (0: only improving moves) */
+	double temperature;
+	long tried, accepted;
+
+	/**
+	 * @param polygon  a simple polygon through all the points (a permutation of point indices)
+	 * @param minimize  whether the area should be decreased (or increased)
+	 */
+	public LocalSearch(OptimalPolygon op, int[] polygon, boolean minimize) {
+		this(op, polygon, minimize, 0);
+	}
+
+	/**
+	 * @param seed  seed of the random moves (the search is reproducible)
+	 */
+	public LocalSearch(OptimalPolygon op, int[] polygon, boolean minimize, long seed) {
+		this.op = op;
+		this.predicates = op.predicates;
+		this.minimize = minimize;
+		this.n = polygon.length;
+		this.random = new Random(seed);
+		this.reset(polygon);
+	}
+
+	/**
+	 * Restart the search from another simple polygon (the random generator goes on)
+	 */
+	public void reset(int[] polygon) {
+		this.polygon = new PolygonRing(this.n, polygon, this.n);
+		this.edgeGrid = new SegmentGrid(this.op.packedPoints);
+		for (int i = 0; i < this.n; i++)
+			this.edgeGrid.add(polygon[i], polygon[(i + 1) % this.n]);
+		this.doubleArea = this.predicates.doubleSignedArea(polygon);
+	}
+
+	public void setTemperature(double temperature) {
+		this.temperature = temperature;
+	}
+
+	/**
+	 * Apply improving moves until the deadline (as given by System.nanoTime()), or until PATIENCE * n
+	 * consecutive moves have been rejected
+	 *
+	 * @return the improved polygon
+	 */
+	public int[] run(long deadline) {
+		if (this.n < 5)
+			return this.polygon.toArray(this.n);
+		long patience = (long) PATIENCE * this.n;
+		long rejected = 0;
+		while (rejected < patience && System.nanoTime() - deadline < 0) {
+			for (int i = 0; i < MOVES_PER_CHECK; i++) {
+				if (this.move())
+					rejected = 0;
+				else
+					rejected++;
+			}
+		}
+		return this.polygon.toArray(this.n);
+	}
+
+	/**
+	 * Try the given number of moves (the result does not depend on the time)
+	 */
+	public void runMoves(long moves) {
+		if (this.n < 5)
+			return;
+		for (long i = 0; i < moves; i++)
+			this.move();
+	}
+
+	/** The current polygon, as a permutation of point indices */
+	public int[] toArray() {
+		return this.polygon.toArray(this.n);
+	}
+
+	/** Try a relocation or a 2-opt move (alternately) on a random vertex, and return whether it has been applied */
+	private boolean move() {
+		int v = this.random.nextInt(this.n);
+		boolean applied = (this.tried & 1) == 0 ? this.tryRelocation(v) : this.tryTwoOpt(v);
+		this.tried++;
+		if (applied)
+			this.accepted++;
+		return applied;
+	}
+
+	/** Area of the current polygon */
+	public long getArea() {
+		return Math.abs(this.doubleArea) / 2;
+	}
+
+	/**
+	 * Whether a variation of twice the signed area is accepted: always when it improves the polygon,
+	 * and with probability exp(-loss / temperature) otherwise
+	 * (a 2-opt move reversing most of the polygon may change its orientation)
+	 */
+	private boolean accepts(long delta) {
+		long area = Math.abs(this.doubleArea), newArea = Math.abs(this.doubleArea + delta);
+		if (this.minimize ? newArea < area : newArea > area)
+			return true;
+		return this.temperature > 0 && this.random.nextDouble() < Math.exp(-Math.abs(newArea - area) / this.temperature);
+	}
+
+	/**
+	 * Try to move the vertex v to an edge going through its cell of the grid
+	 */
+	private boolean tryRelocation(int v) {
+		int count = this.edgeGrid.countEdgesNear(v);
+		if (count == 0)
+			return false;
+		int a = this.edgeGrid.edgeNear(v, this.random.nextInt(count));
+		int b = this.polygon.next(a);
+		int u = this.polygon.prev(v), w = this.polygon.next(v);
+		if (a == v || b == v)
+			return false;
+		long delta = this.predicates.doubleTriangleArea(a, v, b) - this.predicates.doubleTriangleArea(u, v, w);
+		if (!this.accepts(delta) || this.predicates.orientation(a, v, b) == 0)
+			return false;
+
+		// removal of v: the edge (u, w) must not cross the polygon (the edges (u, v) and (v, w) are ignored by the grid)
+		if (this.overlaps(u, this.polygon.prev(u), w) || this.overlaps(w, this.polygon.next(w), u)
+				|| this.crossesPolygon(u, w))
+			return false;
+		// insertion of v in (a, b): the edges (a, v) and (v, b) must cross neither the polygon nor (u, w)
+		int previous = a == w ? u : this.polygon.prev(a), next = b == u ? w : this.polygon.next(b);
+		if (this.overlaps(a, previous, v) || this.overlaps(b, next, v))
+			return false;
+		if ((a != w && this.op.doIntersect(a, v, u, w)) || (b != u && this.op.doIntersect(v, b, u, w)))
+			return false;
+		if (this.crossesPolygon(a, v) || this.crossesPolygon(b, v))
+			return false;
+
+		this.edgeGrid.remove(u);
+		this.edgeGrid.remove(v);
+		this.polygon.remove(v);
+		this.edgeGrid.add(u, w);
+		this.edgeGrid.remove(a);
+		this.polygon.insertAfter(a, v);
+		this.edgeGrid.add(a, v);
+		this.edgeGrid.add(v, b);
+		this.doubleArea += delta;
+		return true;
+	}
+
+	/**
+	 * Try a 2-opt move replacing the edges (a, next[a]) and (c, next[c]) by (a, c) and (next[a], next[c]),
+	 * for the vertices c following a (at most MAX_CHAIN edges away): the first improving valid move is applied
+	 */
+	private boolean tryTwoOpt(int a) {
+		int b = this.polygon.next(a);
+		// chain: sum of the triangles (a, p, next[p]) for the edges from b to c
+		long chain = 0;
+		int c = b;
+		for (int k = 0; k < MAX_CHAIN && this.polygon.next(c) != a; k++) {
+			int previous = c;
+			c = this.polygon.next(c);
+			chain += this.predicates.doubleTriangleArea(a, previous, c);
+			int d = this.polygon.next(c);
+			if (d == a)
+				break;
+			// the area is a sum of triangles (a, p, next[p]): the chain is reversed, (a, b) and (c, d) are replaced
+			long delta = this.predicates.doubleTriangleArea(a, b, d) - this.predicates.doubleTriangleArea(a, c, d) - 2 * chain;
+			if (this.accepts(delta) && this.isValidTwoOpt(a, b, c, d)) {
+				this.applyTwoOpt(a, b, c, d);
+				this.doubleArea += delta;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Whether the new edges (a, c) and (b, d) of a 2-opt move keep the polygon simple */
+	private boolean isValidTwoOpt(int a, int b, int c, int d) {
+		if (this.op.doIntersect(a, c, b, d))
+			return false;
+		if (this.overlaps(a, this.polygon.prev(a), c) || this.overlaps(c, this.polygon.prev(c), a)
+				|| this.overlaps(b, this.polygon.next(b), d) || this.overlaps(d, this.polygon.next(d), b))
+			return false;
+		// the crossings with the edges of the chain are the most frequent ones: they are looked for first
+		for (int p = b; p != c; p = this.polygon.next(p)) {
+			int q = this.polygon.next(p);
+			if ((q != c && this.op.doIntersect(a, c, p, q)) || (p != b && this.op.doIntersect(b, d, p, q)))
+				return false;
+		}
+		// the edges (a, b) and (c, d) are incident to the new edges: they are ignored by the grid
+		return !this.crossesPolygon(a, c) && !this.crossesPolygon(b, d);
+	}
+
+	private void applyTwoOpt(int a, int b, int c, int d) {
+		// the edges of the chain change direction: they are stored again, from their new first vertex
+		this.edgeGrid.remove(a);
+		for (int p = b; p != d; p = this.polygon.next(p))
+			this.edgeGrid.remove(p);
+		this.polygon.reverse(b, c);
+		this.edgeGrid.add(a, c);
+		for (int p = c; p != d; p = this.polygon.next(p))
+			this.edgeGrid.add(p, this.polygon.next(p));
+	}
+
+	/**
+	 * Whether the segment (p, q) crosses an edge of the polygon (not incident to p or q),
+	 * or the search would test too many edges (see MAX_GRID_EDGES)
+	 */
+	private boolean crossesPolygon(int p, int q) {
+		return this.edgeGrid.findCrossing(this.op, p, q, MAX_GRID_EDGES) != -1;
+	}
+
+	/** Whether the segments (p, q) and (p, r) overlap (they are collinear and on the same side of p) */
+	private boolean overlaps(int p, int q, int r) {
+		return this.predicates.orientation(p, q, r) == 0 && this.predicates.dotProductSign(p, q, r) > 0;
+	}
+}
@@ -1,15 +1,6 @@
-import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-
-import Jcg.geometry.GeometricOperations_2;
-import Jcg.geometry.PointCloud_2;
-import Jcg.geometry.Point_;
-import Jcg.geometry.Point_2;
-import Jcg.geometry.Segment_2;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Main class providing tools for computing a polygon with minimal (maximal) area, whose vertices
@@ -20,40 +11,144 @@ import Jcg.geometry.Segment_2;
  */
 public class OptimalPolygon {
 	
-	/** Input point cloud: the set of vertices of the final polygon: an array of size 'n' */
+	/** Input point cloud: the set of vertices of the final polygon: an array of size 'n' (null if given as packed coordinates) */
 	GridPoint_2[] points;
 	
-	/** Comparator used to sort the points before the Andrew algorithm */
-	class SortPointsByCoordinates implements Comparator<Integer> {
-		GridPoint_2[] points;
-		public SortPointsByCoordinates(GridPoint_2[] points) {
-			this.points = points;
+	/** Coordinates of the input points: the geometry functions run on these arrays of size 'n' */
+	PackedPoints packedPoints;
+	int[] xs, ys;
+	/** Exact predicates (orientation, areas) on the input points */
+	Predicates predicates;
+	
+	/** Areas of the last polygons computed by computeMinimalAreaPolygon and computeMaximalAreaPolygon (-1 if none) */
+	long minimalArea = -1, maximalArea = -1;
+	/** Areas of the last polygons computed by computeMonotonePolygon and computeStarShapedPolygon (-1 if none) */
+	long monotoneArea = -1, starShapedArea = -1;
+	/** Whether the last polygon computed by computeMonotonePolygon is simple (exact test, in linear time) */
+	boolean monotoneSimple;
+	
+	/** Number of threads used by the greedy insertion and the convex hull (1: sequential run) */
+	int parallelism = 1;
+	
+	/**
+	 * Whether the points inside the octagon of the extreme points are discarded before computing the convex hull
+	 * (on by default: the hull is the same, and most points of the uniform instances are discarded in one pass)
+	 */
+	boolean hullPrefilter = true;
+	
+	/** Minimal number of points of a chunk of the parallel convex hull */
+	static final int HULL_CHUNK_SIZE = 1 << 16;
+	
+	/** Fractional bits of the pseudo-angles used as sort keys by computeStarShapedPolygon */
+	static final int ANGLE_BITS = 42;
+	
+	/** Upper and lower hulls of the sorted points sortedPoints[from..to-1], stored in upperHull and lowerHull from 'from' */
+	class HullChunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		int[] sortedPoints, upperHull, lowerHull;
+		int from, to, upperSize, lowerSize;
+		
+		HullChunk(int[] sortedPoints, int from, int to, int[] upperHull, int[] lowerHull) {
+			this.sortedPoints = sortedPoints;
+			this.from = from;
+			this.to = to;
+			this.upperHull = upperHull;
+			this.lowerHull = lowerHull;
 		}
 		
-		public int compare(Integer p1, Integer p2) {
-			if (this.points[p1].x < this.points[p2].x) {
-				return -1;
-			}
-			if (this.points[p1].x == this.points[p2].x) {
-				if (this.points[p1].y < this.points[p2].y) {
-					return -1;
-				}
-				if (this.points[p1].y == this.points[p2].y)
-					return 0;
-				return 1;
-			}
-			return 1;
+		protected void compute() {
+			this.upperSize = computeUpperHull(this.sortedPoints, this.from, this.to, this.upperHull, this.from);
+			this.lowerSize = computeLowerHull(this.sortedPoints, this.from, this.to, this.lowerHull, this.from);
 		}
 	}
 	
-
     /**
      * Initialize the input of the program
      */
     public OptimalPolygon(GridPoint_2[] points) {
+    	this(new PackedPoints(points));
     	this.points=points;
     }
     
+    /**
+     * Initialize the input of the program, given as packed coordinates
+     */
+    public OptimalPolygon(PackedPoints points) {
+    	this.packedPoints=points;
+    	this.xs=points.xs;
+    	this.ys=points.ys;
+    	this.predicates=new Predicates(points);
+    }
+    
+    /**
+     * Set the number of threads used to compute the minimal and maximal area polygons, and the convex hull
+     * (the computed polygons do not depend on it)
+     */
+    public void setParallelism(int parallelism) {
+    	if (parallelism < 1)
+    		throw new Error("Error: wrong number of threads "+parallelism);
+    	this.parallelism = parallelism;
+    }
+    
+    /**
+     * Enable or disable the Akl-Toussaint prefilter of the convex hull (the convex hull does not depend on it)
+     */
+    public void setHullPrefilter(boolean hullPrefilter) {
+    	this.hullPrefilter = hullPrefilter;
+    }
+    
+    /**
+     * Run the greedy insertion with the given score, in a pool of 'parallelism' threads if needed
+     * 
+     * @return the engine, once run (it stores the polygon and its area)
+     */
+    private InsertionEngine runInsertion(InsertionScore score) {
+    	if (this.parallelism == 1) {
+    		InsertionEngine engine = new InsertionEngine(this, score);
+    		engine.run();
+    		return engine;
+    	}
+    	ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    	try {
+    		InsertionEngine engine = new InsertionEngine(this, score, pool);
+    		engine.run();
+    		return engine;
+    	}
+    	finally {
+    		pool.shutdown();
+    	}
+    }
+    
+    /**
+     * Area of the last polygon computed by computeMinimalAreaPolygon, -1 if none or if the insertion got stuck
+     * (O(1): no computation)
+     */
+    public long getMinimalArea() {
+    	return this.minimalArea;
+    }
+    
+    /**
+     * Area of the last polygon computed by computeMaximalAreaPolygon, -1 if none (O(1): no computation)
+     */
+    public long getMaximalArea() {
+    	return this.maximalArea;
+    }
+    
+    /**
+     * Area of the last polygon computed by computeMonotonePolygon, -1 if none (O(1): no computation)
+     */
+    public long getMonotoneArea() {
+    	return this.monotoneArea;
+    }
+    
+    /**
+     * Area of the last polygon computed by computeStarShapedPolygon, -1 if none (O(1): no computation)
+     */
+    public long getStarShapedArea() {
+    	return this.starShapedArea;
+    }
+    
     /**
      * Return the area of the convex hull of the input points. <br>
      * 
@@ -73,32 +168,149 @@ public class OptimalPolygon {
 	 * @return the ordered set of points on the convex hull
 	 */
      public int[] computeConvexHull() {
-    	 ArrayList<Integer> convHList = this.computeConvexHullList();
-    	int outerN = convHList.size();
-    	int[] convH = new int[outerN];
-    	for(int i = 0; i<outerN; i++) {
-    		convH[i] = convHList.get(i);
-    	}
-    	
-    	return convH;
+    	return this.computeConvexHull(Long.MAX_VALUE);
     }
-    public ArrayList<Integer> computeConvexHullList() {
+    
+    /**
+     * Convex hull computed before the deadline (as given by System.nanoTime(), Long.MAX_VALUE for none),
+     * checked between the steps of the algorithm
+     * 
+     * @return the ordered set of points on the convex hull, or null if the deadline has passed
+     */
+    int[] computeConvexHull(long deadline) {
     	System.out.print("Performing Andrew algorithm for convex hull...");
+    	int n = this.xs.length;
     	
-    	ArrayList<Integer> sortedPoints= new ArrayList<Integer>();
-    	for (int i = 0; i < this.points.length; i++)
-    		sortedPoints.add(i);
-    	Collections.sort(sortedPoints,new SortPointsByCoordinates(this.points));
-    	
-    	ArrayList<Integer> upperHull=this.computeUpperHull(sortedPoints);
-    	ArrayList<Integer> lowerHull=this.computeLowerHull(sortedPoints);
+    	// lexicographic order, as packed long keys (see RadixSort), of the points which may be on the hull
+    	int[] sortedPoints = new int[n];
+    	for (int i = 0; i < n; i++)
+    		sortedPoints[i] = i;
+    	if (this.hullPrefilter)
+    		n = this.discardInteriorPoints(sortedPoints, n);
+    	if (expired(deadline))
+    		return null;
+    	RadixSort.sortByCoordinates(this.xs, this.ys, sortedPoints, null, n);
+    	if (expired(deadline))
+    		return null;
     	
+    	int[] upperHull = new int[n], lowerHull = new int[n];
+    	int upperSize, lowerSize;
+    	if (this.parallelism > 1 && n >= 2 * HULL_CHUNK_SIZE) {
+    		int[] sizes = this.computeHullsInParallel(sortedPoints, n, upperHull, lowerHull);
+    		upperSize = sizes[0];
+    		lowerSize = sizes[1];
+    	}
+    	else {
+    		upperSize = this.computeUpperHull(sortedPoints, n, upperHull);
+    		lowerSize = this.computeLowerHull(sortedPoints, n, lowerHull);
+    	}
+    	if (expired(deadline))
+    		return null;
     	
-    	for(int i=lowerHull.size()-2;i>=1;i--) { // LCA to be improved
-    		upperHull.add(lowerHull.get(i));
+    	int[] convH = new int[upperSize + Math.max(0, lowerSize - 2)];
+    	System.arraycopy(upperHull, 0, convH, 0, upperSize);
+    	int outerN = upperSize;
+    	for(int i=lowerSize-2;i>=1;i--) {
+    		convH[outerN++] = lowerHull[i];
     	}
     	System.out.println("done");
-    	return upperHull;
+    	return convH;
+    }
+    
+    /** Whether System.nanoTime() has gone past the deadline (Long.MAX_VALUE for none) */
+    static boolean expired(long deadline) {
+    	return deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+    }
+    
+    /**
+     * Akl-Toussaint heuristic: discard the points lying strictly inside the octagon whose vertices are the extreme
+     * points in the directions x, y, x+y and x-y (they are strictly inside the convex hull, and thus on neither
+     * the upper nor the lower hull). One linear pass, and 8 exact orientation tests per point at most.
+     * 
+     * @return the number of remaining points, stored in points[0..size-1] (in the same order)
+     */
+    int discardInteriorPoints(int[] points, int n) {
+    	if (n < 3)
+    		return n;
+    	// extreme points, in ccw order: min y, max x-y, max x, max x+y, max y, min x-y, min x, min x+y
+    	int[] octagon = new int[8];
+    	for (int k = 0; k < 8; k++)
+    		octagon[k] = points[0];
+    	for (int i = 1; i < n; i++) {
+    		int p = points[i];
+    		long x = this.xs[p], y = this.ys[p];
+    		if (y < this.ys[octagon[0]]) octagon[0] = p;
+    		if (x - y > (long) this.xs[octagon[1]] - this.ys[octagon[1]]) octagon[1] = p;
+    		if (x > this.xs[octagon[2]]) octagon[2] = p;
+    		if (x + y > (long) this.xs[octagon[3]] + this.ys[octagon[3]]) octagon[3] = p;
+    		if (y > this.ys[octagon[4]]) octagon[4] = p;
+    		if (x - y < (long) this.xs[octagon[5]] - this.ys[octagon[5]]) octagon[5] = p;
+    		if (x < this.xs[octagon[6]]) octagon[6] = p;
+    		if (x + y < (long) this.xs[octagon[7]] + this.ys[octagon[7]]) octagon[7] = p;
+    	}
+    	// edges of the octagon (the repeated vertices are skipped)
+    	int[] edges = new int[16];
+    	int edgeCount = 0;
+    	for (int k = 0; k < 8; k++) {
+    		int a = octagon[k], b = octagon[(k + 1) % 8];
+    		if (this.xs[a] != this.xs[b] || this.ys[a] != this.ys[b]) {
+    			edges[2 * edgeCount] = a;
+    			edges[2 * edgeCount + 1] = b;
+    			edgeCount++;
+    		}
+    	}
+    	
+    	int size = 0;
+    	for (int i = 0; i < n; i++) {
+    		int p = points[i];
+    		boolean inside = edgeCount > 0;
+    		for (int e = 0; e < edgeCount && inside; e++)
+    			inside = this.predicates.orientation(edges[2 * e], edges[2 * e + 1], p) > 0;
+    		if (!inside)
+    			points[size++] = p;
+    	}
+    	return size;
+    }
+    
+    /**
+     * Compute the upper and lower hulls of the sorted points in parallel: the sorted points are split in chunks,
+     * whose hulls are computed by the threads of a pool. The hulls of the chunks are then merged by running
+     * the same algorithm on their concatenation (a point removed from the hull of its chunk is not on the
+     * hull of the whole set).
+     * 
+     * @return the sizes of the upper and lower hulls, stored in upperHull and lowerHull
+     */
+    private int[] computeHullsInParallel(int[] sortedPoints, int n, int[] upperHull, int[] lowerHull) {
+    	int chunks = Math.min(n / HULL_CHUNK_SIZE, 4 * this.parallelism);
+    	ArrayList<HullChunk> tasks = new ArrayList<HullChunk>(chunks);
+    	for (int c = 0; c < chunks; c++)
+    		tasks.add(new HullChunk(sortedPoints, (int) ((long) c * n / chunks), (int) ((long) (c + 1) * n / chunks), upperHull, lowerHull));
+    	ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    	try {
+    		for (HullChunk task : tasks)
+    			pool.execute(task);
+    		for (HullChunk task : tasks)
+    			task.join();
+    	}
+    	finally {
+    		pool.shutdown();
+    	}
+    	
+    	// concatenation of the hulls of the chunks (in sorted order)
+    	int[] upperPoints = new int[n], lowerPoints = new int[n];
+    	int upperCount = 0, lowerCount = 0;
+    	for (HullChunk task : tasks) {
+    		System.arraycopy(upperHull, task.from, upperPoints, upperCount, task.upperSize);
+    		upperCount += task.upperSize;
+    		System.arraycopy(lowerHull, task.from, lowerPoints, lowerCount, task.lowerSize);
+    		lowerCount += task.lowerSize;
+    	}
+    	return new int[] {this.computeUpperHull(upperPoints, upperCount, upperHull),
+    			this.computeLowerHull(lowerPoints, lowerCount, lowerHull)};
+    }
+    
+    public ArrayList<Integer> computeConvexHullList() {
+    	return toList(this.computeConvexHull(), -1);
     }
     
     /**
@@ -109,19 +321,36 @@ public class OptimalPolygon {
 	 * @return the ordered list of points on the upper Hull
 	 */
     public ArrayList<Integer> computeUpperHull(ArrayList<Integer> sortedPoints) {
-    	ArrayList<Integer> upperHull = new ArrayList<Integer>();
-    	for (int i=0; i<sortedPoints.size(); i++) {
-    		Integer p=sortedPoints.get(i);
-    		int last=upperHull.size();
-    		while(upperHull.size()>=2 &&
-			  	  !this.isCounterClockwise(upperHull.get(last-1),upperHull.get(last-2),p)
+    	int[] hull = new int[sortedPoints.size()];
+    	return toList(hull, this.computeUpperHull(toArray(sortedPoints), sortedPoints.size(), hull));
+    }
+    
+    /**
+     * Compute the upper Hull of the points sortedPoints[0..n-1] (already sorted), using 'hull' as a stack
+     * 
+     * @return the number of points on the upper Hull, stored in hull[0..size-1]
+     */
+    public int computeUpperHull(int[] sortedPoints, int n, int[] hull) {
+    	return this.computeUpperHull(sortedPoints, 0, n, hull, 0);
+    }
+    
+    /**
+     * Compute the upper Hull of the points sortedPoints[from..to-1] (already sorted), using hull[start..] as a stack
+     * 
+     * @return the number of points on the upper Hull, stored in hull[start..start+size-1]
+     */
+    int computeUpperHull(int[] sortedPoints, int from, int to, int[] hull, int start) {
+    	int last=start;
+    	for (int i=from; i<to; i++) {
+    		int p=sortedPoints[i];
+    		while(last>=start+2 &&
+			  	  !this.isCounterClockwise(hull[last-1],hull[last-2],p)
 			     ) {
-				upperHull.remove(last-1); // remove last point in the upper hull
-				last=upperHull.size();
+				last--; // remove last point in the upper hull
 			}
-			upperHull.add(upperHull.size(),p); // add at the end
+			hull[last++]=p; // add at the end
     	}
-		return upperHull;
+		return last-start;
     }
     
     /**
@@ -132,20 +361,55 @@ public class OptimalPolygon {
 	 * @return the ordered list of points on the lower Hull
 	 */
     public ArrayList<Integer> computeLowerHull(ArrayList<Integer> sortedPoints) {
-    	ArrayList<Integer> upperHull = new ArrayList<Integer>();
-    	for (int i=0; i<sortedPoints.size(); i++) {
-    		int p=sortedPoints.get(i);
-    		int last=upperHull.size();
-    		while(upperHull.size()>=2 && 
-    				(this.isCounterClockwise(upperHull.get(last-1),upperHull.get(last-2),p) ||
-    				this.liesOn(upperHull.get(last-1),upperHull.get(last-2),p)) // consider the case of 3 collinear points
+    	int[] hull = new int[sortedPoints.size()];
+    	return toList(hull, this.computeLowerHull(toArray(sortedPoints), sortedPoints.size(), hull));
+    }
+    
+    /**
+     * Compute the lower Hull of the points sortedPoints[0..n-1] (already sorted), using 'hull' as a stack
+     * 
+     * @return the number of points on the lower Hull, stored in hull[0..size-1]
+     */
+    public int computeLowerHull(int[] sortedPoints, int n, int[] hull) {
+    	return this.computeLowerHull(sortedPoints, 0, n, hull, 0);
+    }
+    
+    /**
+     * Compute the lower Hull of the points sortedPoints[from..to-1] (already sorted), using hull[start..] as a stack
+     * 
+     * @return the number of points on the lower Hull, stored in hull[start..start+size-1]
+     */
+    int computeLowerHull(int[] sortedPoints, int from, int to, int[] hull, int start) {
+    	int last=start;
+    	for (int i=from; i<to; i++) {
+    		int p=sortedPoints[i];
+    		while(last>=start+2 && 
+    				(this.isCounterClockwise(hull[last-1],hull[last-2],p) ||
+    				this.liesOn(hull[last-1],hull[last-2],p)) // consider the case of 3 collinear points
 			     ) {
-				upperHull.remove(last-1); // remove last point in the upper hull
-				last=upperHull.size();
+				last--; // remove last point in the lower hull
 			}
-			upperHull.add(upperHull.size(),p); // add at the end
+			hull[last++]=p; // add at the end
     	}
-		return upperHull;
+		return last-start;
+    }
+    
+    /** Copy of the first 'size' entries of the array (the whole array if size is -1) */
+    static ArrayList<Integer> toList(int[] array, int size) {
+    	if (size < 0)
+    		size = array.length;
+    	ArrayList<Integer> list = new ArrayList<Integer>(size);
+    	for (int i = 0; i < size; i++)
+    		list.add(array[i]);
+    	return list;
+    }
+    
+    static int[] toArray(ArrayList<Integer> list) {
+    	int size = list.size();
+    	int[] array = new int[size];
+    	for (int i = 0; i < size; i++)
+    		array[i] = list.get(i);
+    	return array;
     }
 
     /**
@@ -157,35 +421,190 @@ public class OptimalPolygon {
     	if(polygon==null)
     		return -1;
     	
-    	// Formula stolen from http://alienryderflex.com/polygon_area/
-    	long area = 0;
-    	for(int i = 0; i < polygon.length-1; i++) {
-    		area += (this.points[polygon[i]].x + this.points[polygon[i+1]].x) 
-    				* (this.points[polygon[i]].y - this.points[polygon[i+1]].y);
-    	}
-    	area += (this.points[polygon[polygon.length-1]].x + this.points[polygon[0]].x) 
-				* (this.points[polygon[polygon.length-1]].y - this.points[polygon[0]].y);
-    	
+    	long area = this.predicates.doubleSignedArea(polygon);
     	if (area < 0)
     		area *= -1;
     	return area / 2;
     }
-    public long computeArea(ArrayList<Integer> polygon) {
-    	if(polygon==null)
-    		return -1;
+    
+    /**
+     * A simple polygon through all the points, computed in O(n) time after sorting: the x-monotone polygon
+     * made of the points on the right of the line joining the first and the last points a and b in lexicographic
+     * order, from left to right, followed by the points on its left from right to left (in ccw order). <br>
+     * 
+     * The points lying on the segment (a, b) go to the lower chain, unless no point lies on the left of (a, b):
+     * they then form the upper chain, so that the closing edge (b, a) does not go through them. <br>
+     * 
+     * Remark: the polygon is valid unless all the points are collinear or two points are at the same place
+     * (its area is given by getMonotoneArea).
+     */
+    public int[] computeMonotonePolygon() {
+    	int n = this.xs.length;
+    	int[] sortedPoints = new int[n];
+    	for (int i = 0; i < n; i++)
+    		sortedPoints[i] = i;
+    	RadixSort.sortByCoordinates(this.xs, this.ys, sortedPoints, null, n);
+    	this.monotoneSimple = false;
+    	if (n < 3) {
+    		this.monotoneArea = 0;
+    		return sortedPoints;
+    	}
     	
-    	int size = polygon.size();
+    	int[] polygon = new int[n];
+    	int a = sortedPoints[0], b = sortedPoints[n - 1];
+    	boolean distinct = true, collinear = true;
+    	boolean leftEmpty = true;
+    	for (int i = 1; i < n - 1 && leftEmpty; i++)
+    		leftEmpty = this.predicates.orientation(a, b, sortedPoints[i]) <= 0;
+    	int lower = 0, upper = n;
+    	for (int i = 0; i < n; i++) {
+    		int p = sortedPoints[i];
+    		int o = i > 0 && i < n - 1 ? this.predicates.orientation(a, b, p) : -1;
+    		if (i > 0 && i < n - 1 && o != 0)
+    			collinear = false;
+    		if (i > 0 && this.xs[p] == this.xs[sortedPoints[i - 1]] && this.ys[p] == this.ys[sortedPoints[i - 1]])
+    			distinct = false;
+    		if (o > 0 || (o == 0 && leftEmpty))
+    			polygon[--upper] = p; // the points on the left are stored from the end
+    		else
+    			polygon[lower++] = p;
+    	}
+    	this.monotoneArea = this.computeArea(polygon);
+    	this.monotoneSimple = distinct && !collinear;
+    	return polygon;
+    }
+    
+    /**
+     * A star-shaped simple polygon through all the points, computed in O(n) time after sorting: the points are
+     * listed by angle around a point c lying strictly inside the convex hull (the centroid of three points
+     * which are not collinear), the points on a same ray from c being listed by distance to c. <br>
+     * 
+     * The points are first sorted by a pseudo-angle computed with doubles (primitive keys, see RadixSort), then
+     * an insertion sort with the exact comparison of the angles fixes the order of the points whose keys are
+     * too close (it runs in linear time, as the points are almost sorted). The points on a same ray get the same
+     * key: they are then sorted by distance. <br>
+     * 
+     * Remark: the polygon is valid unless all the points are collinear (its area is given by getStarShapedArea).
+     */
+    public int[] computeStarShapedPolygon() {
+    	int n = this.xs.length;
+    	int[] polygon = new int[n];
+    	for (int i = 0; i < n; i++)
+    		polygon[i] = i;
     	
-    	// Formula stolen from http://alienryderflex.com/polygon_area/
-    	long area = 0;
-    	for(int i = 0; i < size-1; i++) {
-    		area += (this.points[polygon.get(i)].x + this.points[polygon.get(i+1)].x) 
-    				* (this.points[polygon.get(i)].y - this.points[polygon.get(i+1)].y) / 2;
+    	// a triangle (a, b, d): a and b are the first and the last points in lexicographic order
+    	int a = 0, b = 0;
+    	for (int p = 1; p < n; p++) {
+    		if (this.xs[p] < this.xs[a] || (this.xs[p] == this.xs[a] && this.ys[p] < this.ys[a]))
+    			a = p;
+    		if (this.xs[p] > this.xs[b] || (this.xs[p] == this.xs[b] && this.ys[p] > this.ys[b]))
+    			b = p;
+    	}
+    	int d = -1;
+    	for (int p = 0; p < n && d < 0; p++) {
+    		if (this.predicates.orientation(a, b, p) != 0)
+    			d = p;
     	}
-    	area += (this.points[polygon.get(size-1)].x + this.points[polygon.get(0)].x) 
-				* (this.points[polygon.get(size-1)].y - this.points[polygon.get(0)].y) / 2;
+    	if (d < 0) {
+    		RadixSort.sortByCoordinates(this.xs, this.ys, polygon, null, n);
+    		this.starShapedArea = 0;
+    		return polygon;
+    	}
+    	
+    	// center c = (a+b+d)/3: the coordinates are multiplied by 3 (cx, cy). If c is one of the points,
+    	// this point replaces d (the new triangle lies strictly inside the previous one)
+    	long cx, cy;
+    	long[] keys = new long[n];
+    	int center;
+    	do {
+    		cx = (long) this.xs[a] + this.xs[b] + this.xs[d];
+    		cy = (long) this.ys[a] + this.ys[b] + this.ys[d];
+    		center = -1;
+    		for (int p = 0; p < n && center < 0; p++) {
+    			long dx = 3L * this.xs[p] - cx, dy = 3L * this.ys[p] - cy;
+    			if (dx == 0 && dy == 0)
+    				center = p;
+    			else
+    				keys[p] = (long) (pseudoAngle(dx, dy) * (1L << ANGLE_BITS));
+    		}
+    		if (center >= 0)
+    			d = center;
+    	} while (center >= 0);
+    	RadixSort.sort(keys, polygon, n, ANGLE_BITS + 2);
     	
-    	return area;
+    	// exact order of the angles: only the points whose keys differ by at most 1 may be misordered
+    	for (int i = 1; i < n; i++) {
+    		int p = polygon[i];
+    		long key = keys[i];
+    		int j = i - 1;
+    		while (j >= 0 && key - keys[j] <= 1 && this.compareAngles(polygon[j], p, cx, cy) > 0) {
+    			polygon[j + 1] = polygon[j];
+    			keys[j + 1] = keys[j];
+    			j--;
+    		}
+    		polygon[j + 1] = p;
+    		keys[j + 1] = key;
+    	}
+    	// the points on a same ray (they have the same key) are sorted by distance:
+    	// max(|dx|, |dy|) is proportional to the distance
+    	for (int i = 0; i < n; ) {
+    		int j = i + 1;
+    		while (j < n && keys[j] == keys[i] && this.compareAngles(polygon[i], polygon[j], cx, cy) == 0)
+    			j++;
+    		if (j - i > 1) {
+    			int[] ray = new int[j - i];
+    			long[] distances = new long[j - i];
+    			for (int k = i; k < j; k++) {
+    				int p = polygon[k];
+    				ray[k - i] = p;
+    				distances[k - i] = Math.max(Math.abs(3L * this.xs[p] - cx), Math.abs(3L * this.ys[p] - cy));
+    			}
+    			RadixSort.sort(distances, ray, j - i, 63);
+    			System.arraycopy(ray, 0, polygon, i, j - i);
+    		}
+    		i = j;
+    	}
+    	this.starShapedArea = this.computeArea(polygon);
+    	return polygon;
+    }
+    
+    /**
+     * Increasing function of the angle of the vector (dx, dy) in [0, 2 pi[ (from the x axis), with values in [0, 4[,
+     * cheaper than Math.atan2 (dy / (|dx| + |dy|) in each quadrant)
+     */
+    static double pseudoAngle(long dx, long dy) {
+    	double p = (double) dy / (Math.abs(dx) + Math.abs(dy));
+    	if (dx < 0)
+    		return 2 - p;
+    	return dy < 0 ? 4 + p : p;
+    }
+    
+    /**
+     * Exact comparison of the angles of the points p and q around the center c (whose coordinates,
+     * multiplied by 3, are cx and cy), in [0, 2 pi[ from the x axis
+     */
+    private int compareAngles(int p, int q, long cx, long cy) {
+    	long px = 3L * this.xs[p] - cx, py = 3L * this.ys[p] - cy;
+    	long qx = 3L * this.xs[q] - cx, qy = 3L * this.ys[q] - cy;
+    	int halfP = py > 0 || (py == 0 && px > 0) ? 0 : 1, halfQ = qy > 0 || (qy == 0 && qx > 0) ? 0 : 1;
+    	if (halfP != halfQ)
+    		return halfP - halfQ;
+    	// p comes first when q lies on the left of (c, p)
+    	return -Predicates.compareProducts(px, qy, py, qx);
+    }
+    
+    /**
+     * Area of the triangle (p, q, r), without allocating any array (same value as computeArea on the triangle)
+     */
+    public long computeTriangleArea(int p, int q, int r) {
+    	return Math.abs(this.predicates.doubleTriangleArea(p, q, r)) / 2;
+    }
+    
+    public long computeArea(ArrayList<Integer> polygon) {
+    	if(polygon==null)
+    		return -1;
+    	
+    	return this.computeArea(toArray(polygon));
     }
 
     /**
@@ -194,23 +613,20 @@ public class OptimalPolygon {
      * -) the polygon should be simple: non consecutive edges should have empty intersection <br>
      */
     public boolean checkValidity(int[] polygon) {
-    	int n = this.points.length;
+    	int n = this.xs.length;
     	if(polygon==null || polygon.length != n)
     		return false;
     	
     	// Check permutation
-    	HashMap<Integer, Boolean> found = new HashMap<Integer, Boolean>(); 
-    	for (int i = 0; i < n; i++) {
-    		found.put(i, false);
-    	}
+    	boolean[] found = new boolean[n]; 
     	for (int i = 0; i < polygon.length; i++) {
-    		if (!found.containsKey(polygon[i])){
+    		if (polygon[i] < 0 || polygon[i] >= n){
     			return false;
     		}
-    		if (found.get(polygon[i])) {
+    		if (found[polygon[i]]) {
     			return false;
     		}
-    		found.put(polygon[i], true);
+    		found[polygon[i]] = true;
     	}
     	
     	
@@ -223,41 +639,16 @@ public class OptimalPolygon {
     }
     
     /**
-     * Checks whether the polygon intersects itself in a really naive way (O(n^2)), 
-     * if needed, we should implement Bentley-Ottmann algorithm that is O(nlogn)
+     * Checks whether the polygon intersects itself, with a sweep line algorithm in O(nlogn)
+     * (Shamos-Hoey variant of Bentley-Ottmann, see SelfIntersectionSweep)
      * @param polygon
-     * @return
+     * @return true if two non consecutive edges have a common point
      */
     public boolean doesSelfIntersect(int[] polygon) {
-    	for (int i = 0; i < polygon.length - 1; i++) {
-    		for (int j = i+2; j < polygon.length - 1; j++) {
-    			if (this.doIntersect(polygon[i], polygon[i+1], polygon[j], polygon[j+1])) {
-    				return true;
-    			}
-    		}
-    	}
-		for (int j = 1; j < polygon.length - 2; j++) {
-			if (this.doIntersect(polygon[polygon.length-1], polygon[0], polygon[j], polygon[j+1])) {
-				return true;
-			}
-		}
-		return false;
+    	return new SelfIntersectionSweep(this.predicates, polygon).doesSelfIntersect();
     }
     public boolean doesSelfIntersect(ArrayList<Integer> polygon) {
-    	int size = polygon.size();
-    	for (int i = 0; i < size - 1; i++) {
-    		for (int j = i+2; j < size - 1; j++) {
-    			if (this.doIntersect(polygon.get(i), polygon.get(i+1), polygon.get(j), polygon.get(j+1))) {
-    				return true;
-    			}
-    		}
-    	}
-		for (int j = 1; j < size - 2; j++) {
-			if (this.doIntersect(polygon.get(size-1), polygon.get(0), polygon.get(j), polygon.get(j+1))) {
-				return true;
-			}
-		}
-		return false;
+    	return this.doesSelfIntersect(toArray(polygon));
     }
     
     /**
@@ -270,111 +661,254 @@ public class OptimalPolygon {
      */
     public boolean doesSelfIntersectAddingOnePoint(int p, int index, ArrayList<Integer> polygon) {
     	int size = polygon.size();
-    	int nextIndex = (index + 1) % size;
-    	for (int j = 0; j < size - 1; j++) {
-			if (polygon.get(index) != polygon.get(j) && polygon.get(index) != polygon.get(j+1) && this.doIntersect(polygon.get(index), p, polygon.get(j), polygon.get(j+1))) {
+    	int v1 = polygon.get(index), v2 = polygon.get((index + 1) % size);
+    	int c = polygon.get(size - 1);
+    	for (int j = 0; j < size; j++) {
+    		int d = polygon.get(j); // edge (c, d)
+			if (v1 != c && v1 != d && this.doIntersect(v1, p, c, d)) {
 				return true;
 			}
-			if (polygon.get(nextIndex) != polygon.get(j) && polygon.get(nextIndex) != polygon.get(j+1) && this.doIntersect(polygon.get(nextIndex), p, polygon.get(j), polygon.get(j+1))) {
+			if (v2 != c && v2 != d && this.doIntersect(v2, p, c, d)) {
 				return true;
 			}
-		}
-    	if (polygon.get(index) != polygon.get(0) && polygon.get(index) != polygon.get(size-1) && this.doIntersect(polygon.get(index), p, polygon.get(0), polygon.get(size-1))) {
-			return true;
-		}
-		if (polygon.get(nextIndex) != polygon.get(0) && polygon.get(nextIndex) != polygon.get(size-1) && this.doIntersect(polygon.get(nextIndex), p, polygon.get(0), polygon.get(size-1))) {
-			return true;
+			c = d;
 		}
     	return false;
     }
     
-    private boolean okToAddThisPoint(int p, int indexInPolygon, ArrayList<Integer> polygon, ArrayList<Integer> remainingPoints) {
-    	if (this.doesSelfIntersectAddingOnePoint(p, indexInPolygon, polygon))
-    		return false;
+    /**
+     * Main function that computes a simple polygon of minimal area (whose vertices are exactly the input points).<br>
+     * 
+     * Remark: no exception is thrown when the greedy insertion fails. If it gets stuck (no polygon edge admits
+     * an empty triangle, see bug.instance), the returned array only stores the inserted points (it is not a
+     * permutation) and getMinimalArea returns -1. If the points are collinear, the returned polygon is not simple.
+     * In both cases checkValidity rejects the polygon.
+     * 
+     * @return  an array of size 'n' storing the computed polygon as a permutation of point indices
+     */
+    public int[] computeMinimalAreaPolygon() {
+    	System.out.print("Computing a simple polygon of minimal area: ");
+    	long startTime=System.nanoTime(), endTime; // for evaluating time performances
     	
-    	int nextIndex = (indexInPolygon + 1) % polygon.size();
-
-    	if (this.listInTriangle(remainingPoints, p, polygon.get(indexInPolygon), polygon.get(nextIndex)))
-    		return false;
+    	InsertionEngine engine = this.runInsertion(InsertionEngine.LARGEST_TRIANGLE);
+    	int[] polygonArray = engine.result;
+    	this.minimalArea = engine.isComplete() ? engine.getArea() : -1;
     	
-    	return true;
+    	endTime=System.nanoTime();
+        double duration=(double)(endTime-startTime)/1000000000.;
+    	System.out.println("Elapsed time: "+duration+" seconds");
+    	
+    	return polygonArray;
     }
     
 
     /**
-     * Main function that computes a simple polygon of minimal area (whose vertices are exactly the input points).<br>
+     * Anytime version of computeMinimalAreaPolygon: returns the best valid polygon found within the time budget. <br>
      * 
-     * @return  an array of size 'n' storing the computed polygon as a permutation of point indices
-     * @throws Exception 
+     * An x-monotone polygon is computed first (see computeMonotonePolygon), then the greedy insertion runs
+     * until it is done or the budget runs out, and the best polygon is improved by local search with the
+     * remaining time (see LocalSearch). Each better polygon is published to the listener.
+     * 
+     * @param budget  time budget, in milliseconds
+     * @param listener  receives the best-so-far polygons (may be null)
      */
-    public int[] computeMinimalAreaPolygon() throws Exception {
-    	System.out.print("Computing a simple polygon of minimal area: ");
-    	long startTime=System.nanoTime(), endTime; // for evaluating time performances
+    public int[] computeMinimalAreaPolygon(long budget, SolutionListener listener) {
+    	return this.runAnytime(InsertionEngine.LARGEST_TRIANGLE, budget, listener);
+    }
+    
+    /**
+     * Anytime version of computeMaximalAreaPolygon (see computeMinimalAreaPolygon(long, SolutionListener))
+     */
+    public int[] computeMaximalAreaPolygon(long budget, SolutionListener listener) {
+    	return this.runAnytime(InsertionEngine.SMALLEST_TRIANGLE, budget, listener);
+    }
+    
+    /**
+     * Alternative construction of a polygon of small area, by carving a Delaunay triangulation of the points
+     * (see TriangleCarving): the largest triangles are removed first. O(n log n) time besides the triangulation
+     * (see DelaunayTriangulation), and it does not get stuck when no hull edge admits an empty triangle
+     * (unlike the greedy insertion). <br>
+     *
+     * Remark: if the carving fails, the x-monotone polygon is returned (see computeMonotonePolygon).
+     */
+    public int[] computeMinimalAreaPolygonByCarving() {
+    	return this.runCarving(InsertionEngine.LARGEST_TRIANGLE);
+    }
+
+    /**
+     * Alternative construction of a polygon of large area, by carving the smallest triangles first
+     * (see computeMinimalAreaPolygonByCarving)
+     */
+    public int[] computeMaximalAreaPolygonByCarving() {
+    	return this.runCarving(InsertionEngine.SMALLEST_TRIANGLE);
+    }
+
+    private int[] runCarving(InsertionScore score) {
+    	boolean minimal = score == InsertionEngine.LARGEST_TRIANGLE;
+    	System.out.print("Carving a polygon of "+(minimal ? "minimal" : "maximal")+" area: ");
+    	long startTime=System.nanoTime();
+    	TriangleCarving carving = new TriangleCarving(this, score);
+    	int[] polygon = carving.run();
+    	if (polygon == null)
+    		polygon = this.computeMonotonePolygon();
+    	long area = this.computeArea(polygon);
+    	if (minimal)
+    		this.minimalArea = area;
+    	else
+    		this.maximalArea = area;
+    	double duration=(double)(System.nanoTime()-startTime)/1000000000.;
+    	System.out.println(carving.getFlips()+" flips, elapsed time: "+duration+" seconds");
+    	return polygon;
+    }
+
+    /**
+     * Improve a simple polygon of small area by local search (see LocalSearch), within the time budget
+     * 
+     * @param polygon  a valid polygon (it is not modified)
+     * @param budget  time budget, in milliseconds
+     * @return  a valid polygon whose area is at most the one of the input polygon
+     */
+    public int[] improveMinimalAreaPolygon(int[] polygon, long budget) {
+    	LocalSearch search = new LocalSearch(this, polygon, true);
+    	int[] result = search.run(System.nanoTime() + budget * 1000000L);
+    	this.minimalArea = search.getArea();
+    	return result;
+    }
+    
+    /**
+     * Improve a simple polygon of large area by local search (see improveMinimalAreaPolygon)
+     */
+    public int[] improveMaximalAreaPolygon(int[] polygon, long budget) {
+    	LocalSearch search = new LocalSearch(this, polygon, false);
+    	int[] result = search.run(System.nanoTime() + budget * 1000000L);
+    	this.maximalArea = search.getArea();
+    	return result;
+    }
+    
+    /**
+     * Exact minimal area polygon, for small instances (see ExactSolver), computed with 'parallelism' threads.
+     * The optimum, the number of nodes of the search tree and the nodes per second are printed.
+     * 
+     * @return  an optimal polygon (null if there is no simple polygon through the points)
+     */
+    public int[] computeExactMinimalAreaPolygon() {
+    	return this.runExact(true);
+    }
+    
+    /**
+     * Exact maximal area polygon, for small instances (see computeExactMinimalAreaPolygon)
+     */
+    public int[] computeExactMaximalAreaPolygon() {
+    	return this.runExact(false);
+    }
+    
+    private int[] runExact(boolean minimal) {
+    	System.out.print("Computing an exact "+(minimal ? "minimal" : "maximal")+" area polygon: ");
+    	long startTime=System.nanoTime();
+    	ExactSolver solver = new ExactSolver(this, minimal);
+    	int[] polygon = solver.run(this.parallelism);
+    	double duration=(double)(System.nanoTime()-startTime)/1000000000.;
+    	if (minimal)
+    		this.minimalArea = solver.getArea();
+    	else
+    		this.maximalArea = solver.getArea();
+    	System.out.println("optimum "+solver.getArea()+", "+solver.getNodes()+" nodes in "+duration+" seconds ("
+    			+(long)(solver.getNodes()/Math.max(duration, 1e-9))+" nodes/s)");
+    	return polygon;
+    }
+    
+    /**
+     * Improve a simple polygon of small area by parallel simulated annealing (see SimulatedAnnealing):
+     * one chain per thread, the result only depends on the seed
+     * 
+     * @param polygon  a valid polygon (it is not modified)
+     * @param chains  number of chains (and of threads)
+     * @param epochs  number of epochs (each chain tries 20n moves per epoch)
+     * @return  a valid polygon whose area is at most the one of the input polygon
+     */
+    public int[] annealMinimalAreaPolygon(int[] polygon, int chains, int epochs, long seed) {
+    	SimulatedAnnealing annealing = new SimulatedAnnealing(this, polygon, true, chains, seed);
+    	int[] result = annealing.run(epochs, chains);
+    	this.minimalArea = annealing.getArea();
+    	return result;
+    }
+    
+    /**
+     * Improve a simple polygon of large area by parallel simulated annealing (see annealMinimalAreaPolygon)
+     */
+    public int[] annealMaximalAreaPolygon(int[] polygon, int chains, int epochs, long seed) {
+    	SimulatedAnnealing annealing = new SimulatedAnnealing(this, polygon, false, chains, seed);
+    	int[] result = annealing.run(epochs, chains);
+    	this.maximalArea = annealing.getArea();
+    	return result;
+    }
+    
+    /**
+     * Run the anytime solver for the minimal (LARGEST_TRIANGLE) or maximal (SMALLEST_TRIANGLE) area polygon. <br>
+     * 
+     * Each polygon is checked before being published (see checkValidity; the x-monotone polygon is checked in
+     * linear time when it is built): the greedy insertion is only checked if there is time left, and the local
+     * search stops early enough to leave time for the check of its polygon (as long as the previous check).
+     */
+    private int[] runAnytime(InsertionScore score, long budget, SolutionListener listener) {
+    	boolean minimal = score == InsertionEngine.LARGEST_TRIANGLE;
+    	System.out.print("Computing a simple polygon of "+(minimal ? "minimal" : "maximal")+" area within "+budget+" ms: ");
+    	long startTime=System.nanoTime();
+    	long deadline=startTime+budget*1000000L;
     	
-    	int n = this.points.length;
-    	ArrayList<Integer> polygon = this.computeConvexHullList();
-    	ArrayList<Integer> remainingPoints = new ArrayList<Integer>(n);
-    	for (int i = 0; i < n; i++) {
-    		if (!polygon.contains(i))
-    			remainingPoints.add(i);
-    	}
-    	while (!remainingPoints.isEmpty()) {
-    		int v1InPolygonIndex = 0;
-    		int pToKeepIndex = 0;
-    		long maxAreaTriangle = -1;
-    		boolean foundOne = false;
-    		
-    		for (int i = 0; i < remainingPoints.size(); i++) {
-    			int p = remainingPoints.get(i);
-    			for (int j = 0; j < polygon.size() - 1; j++) {
-    				int v1 = polygon.get(j), v2 = polygon.get(j+1);
-    				int[] currentTriangle = {p, v1, v2};
-    				long currentArea = this.computeArea(currentTriangle);
-    				if (currentArea > maxAreaTriangle) {
-    					if (this.okToAddThisPoint(p, j, polygon, remainingPoints)) {
-    						maxAreaTriangle = currentArea;
-    						v1InPolygonIndex = j;
-    						pToKeepIndex = i;
-    						foundOne = true;
-    					}
+    	int[] best = this.computeMonotonePolygon();
+    	long bestArea = this.getMonotoneArea();
+    	boolean valid = this.monotoneSimple;
+    	if (valid && listener != null)
+    		listener.improved(best, bestArea);
+    	// time kept aside for the check of the polygon of the local search (until a check has been timed)
+    	long checkTime = budget*100000L;
+    	
+    	if (!expired(deadline)) {
+    		ForkJoinPool pool = this.parallelism == 1 ? null : new ForkJoinPool(this.parallelism);
+    		try {
+    			InsertionEngine engine = new InsertionEngine(this, score, pool);
+    			engine.setDeadline(deadline);
+    			int[] polygon = engine.run();
+    			long area = engine.getArea();
+    			if (engine.isComplete() && (!valid || (minimal ? area < bestArea : area > bestArea)) && !expired(deadline)) {
+    				long checkStart = System.nanoTime();
+    				if (this.checkValidity(polygon)) {
+    					best = polygon;
+    					bestArea = area;
+    					valid = true;
+    					if (listener != null)
+    						listener.improved(best, bestArea);
     				}
+    				checkTime = System.nanoTime() - checkStart;
     			}
-    			int v1 = polygon.get(polygon.size() - 1), v2 = polygon.get(0);
-				int[] currentTriangle = {p, v1, v2};
-				long currentArea = this.computeArea(currentTriangle);
-				if (currentArea > maxAreaTriangle) {
-					if (this.okToAddThisPoint(p, polygon.size() - 1, polygon, remainingPoints)) {
-						maxAreaTriangle = currentArea;
-						v1InPolygonIndex = polygon.size() - 1;
-						pToKeepIndex = i;
-						foundOne = true;
-					}
-				}
     		}
-    		if (!foundOne) {
-    			System.out.println("Did not found any candidate");
-    			System.out.println(remainingPoints);
-    			break;
+    		finally {
+    			if (pool != null)
+    				pool.shutdown();
     		}
-    			
-    		polygon.add(v1InPolygonIndex+1, remainingPoints.get(pToKeepIndex));
-    		remainingPoints.remove(pToKeepIndex);
-    		
     	}
     	
-    	endTime=System.nanoTime();
-        double duration=(double)(endTime-startTime)/1000000000.;
-    	System.out.println("Elapsed time: "+duration+" seconds");
-    	
-    	int[] polygonArray = new int[n];
-    	for (int i = 0; i < polygon.size(); i++) {
-    		polygonArray[i] = polygon.get(i);
+    	if (valid && System.nanoTime() - (deadline - checkTime) < 0) {
+    		LocalSearch search = new LocalSearch(this, best, minimal);
+    		int[] polygon = search.run(deadline - checkTime);
+    		if (search.accepted > 0 && this.checkValidity(polygon)) {
+    			best = polygon;
+    			bestArea = search.getArea();
+    			if (listener != null)
+    				listener.improved(best, bestArea);
+    		}
     	}
     	
-    	return polygonArray;
+    	if (minimal)
+    		this.minimalArea = bestArea;
+    	else
+    		this.maximalArea = bestArea;
+    	double duration=(double)(System.nanoTime()-startTime)/1000000000.;
+    	System.out.println("Elapsed time: "+duration+" seconds");
+    	return best;
     }
     
-
     /**
      * Main function that computes a simple polygon of maximal area (whose vertices are exactly the input points).<br>
      * 
@@ -384,71 +918,24 @@ public class OptimalPolygon {
     	System.out.print("Computing a simple polygon of maximal area: ");
     	long startTime=System.nanoTime(), endTime; // for evaluating time performances
     	
-    	int n = this.points.length;
-    	ArrayList<Integer> polygon = this.computeConvexHullList();
-    	ArrayList<Integer> remainingPoints = new ArrayList<Integer>(n);
-    	for (int i = 0; i < n; i++) {
-    		if (!polygon.contains(i))
-    			remainingPoints.add(i);
-    	}
-    	while (!remainingPoints.isEmpty()) {
-    		int polygon_point_index = 0;
-    		int pkept = 0;
-    		long minArea = Long.MAX_VALUE;
-    		boolean foundOne = false;
-    		for (int i=0; i<remainingPoints.size(); i++) {
-    			int p=remainingPoints.get(i);
-    			for (int j=0; j<polygon.size()-1; j++) {
-    				int v1 = polygon.get(j), v2 = polygon.get(j+1);
-    				int[] triangle = {p, v1, v2};
-    				long currentArea = this.computeArea(triangle);
-    				if (currentArea < minArea) {
-    					if (this.okToAddThisPoint(p, j, polygon, remainingPoints)) {
-    						minArea = currentArea;
-    						polygon_point_index = j;
-    						pkept = i;
-    						foundOne = true;
-    					}
-    				}
-    			}
-    			int v1 = polygon.get(polygon.size() - 1), v2 = polygon.get(0);
-				int[] currentTriangle = {p, v1, v2};
-				long currentArea = this.computeArea(currentTriangle);
-				if (currentArea < minArea) {
-					if (this.okToAddThisPoint(p, polygon.size() - 1, polygon, remainingPoints)) {
-						minArea = currentArea;
-						polygon_point_index = polygon.size() - 1;
-						pkept = i;
-						foundOne = true;
-					}
-				}
-    		}
-//    		System.out.println("Polygon: "+polygon.size()+"/"+n);
-    		if (!foundOne)
-    			System.out.println("Did not found any candidate");
-    		polygon.add(polygon_point_index+1, remainingPoints.get(pkept));
-    		remainingPoints.remove(pkept);
-    	}
+    	InsertionEngine engine = this.runInsertion(InsertionEngine.SMALLEST_TRIANGLE);
+    	int[] polygonArray = engine.result;
+    	this.maximalArea = engine.getArea();
+    	
     	endTime=System.nanoTime();
         double duration=(double)(endTime-startTime)/1000000000.;
     	System.out.println("Elapsed time: "+duration+" seconds");
     	
-    	int[] polygonArray = new int[n];
-    	for (int i = 0; i < polygon.size(); i++) {
-    		polygonArray[i] = polygon.get(i);
-    	}
-    	
     	return polygonArray;
     }
     
     
     // -------------------------------------------------------------
-    // GEOMETRY FUNCTIONS (taking index in this.points as points)
+    // GEOMETRY FUNCTIONS (taking point indices, coordinates in this.xs and this.ys)
     // -------------------------------------------------------------
     
     public long distance(int p, int q) {
-    	return (this.points[p].x - this.points[q].x)*(this.points[p].x - this.points[q].x) 
-    			+ (this.points[p].y - this.points[q].y)*(this.points[p].y - this.points[q].y);
+    	return this.predicates.squareDistance(p, q);
     }
     
     // Stolen from https://www.geeksforgeeks.org/check-if-two-given-line-segments-intersect/
@@ -456,12 +943,12 @@ public class OptimalPolygon {
     { 
         // See https://www.geeksforgeeks.org/orientation-3-ordered-points/ 
         // for details of below formula. 
-        long val = (this.points[q].y - this.points[p].y) * (this.points[r].x - this.points[q].x) - 
-                (this.points[q].x - this.points[p].x) * (this.points[r].y - this.points[q].y); 
+        // (computed exactly, see Predicates)
+        int val = this.predicates.orientation(p, q, r); 
       
         if (val == 0) return 0; // colinear 
       
-        return (val > 0)? 1: 2; // clock or counterclock wise 
+        return (val < 0)? 1: 2; // clock or counterclock wise 
     }
     
     private boolean isClockwise(int p, int q, int r) {
@@ -496,9 +983,17 @@ public class OptimalPolygon {
     	}
     	return false;
     }
+    public boolean listInTriangle(IntSet set, int a, int b, int c) {
+    	int size = set.size();
+    	for(int i = 0; i < size; i++) {
+    		if (this.isInTriangle(set.get(i), a, b, c)) 
+    			return true;
+    	}
+    	return false;
+    }
     
     // Stolen from https://www.geeksforgeeks.org/check-if-two-given-line-segments-intersect/
-    private boolean doIntersect(int p1, int q1, int p2, int q2) 
+    boolean doIntersect(int p1, int q1, int p2, int q2) 
     { 
         // Find the four orientations needed for general and 
         // special cases 
@@ -528,8 +1023,8 @@ public class OptimalPolygon {
     // Checks whether p lies on the segment [q, r]
     private boolean liesOn(int p, int q, int r) 
     { 
-        if (this.points[q].x <= Math.max(this.points[p].x, this.points[r].x) && this.points[q].x >= Math.min(this.points[p].x, this.points[r].x) && 
-        		this.points[q].y <= Math.max(this.points[p].y, this.points[r].y) && this.points[q].y >= Math.min(this.points[p].y, this.points[r].y)) 
+        if (this.xs[q] <= Math.max(this.xs[p], this.xs[r]) && this.xs[q] >= Math.min(this.xs[p], this.xs[r]) && 
+        		this.ys[q] <= Math.max(this.ys[p], this.ys[r]) && this.ys[q] >= Math.min(this.ys[p], this.ys[r])) 
         return true; 
       
         return false; 
@@ -0,0 +1,78 @@
+
+/**
+ * Packed storage of a 2D point cloud (integer coordinates): the coordinates of the point i are (xs[i], ys[i]). <br>
+ *
+ * Compared to an array of GridPoint_2, there is no object header and no pointer to follow when reading
+ * the coordinates: the geometric predicates of OptimalPolygon run directly on the two arrays.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PackedPoints {
+
+	public final int[] xs, ys;
+	/** Area of the convex hull given in the instance file, -1 if it is unknown */
+	public long convexHullArea = -1;
+
+	/** Allocate the storage for n points (all at the origin) */
+	public PackedPoints(int n) {
+		this.xs = new int[n];
+		this.ys = new int[n];
+	}
+
+	public PackedPoints(int[] xs, int[] ys) {
+		if (xs.length != ys.length)
+			throw new Error("Error: wrong number of coordinates");
+		this.xs = xs;
+		this.ys = ys;
+	}
+
+	public PackedPoints(GridPoint_2[] points) {
+		this(points.length);
+		for (int i = 0; i < points.length; i++) {
+			this.xs[i] = points[i].x;
+			this.ys[i] = points[i].y;
+		}
+	}
+
+	public int size() {
+		return this.xs.length;
+	}
+
+	public int x(int i) {
+		return this.xs[i];
+	}
+
+	public int y(int i) {
+		return this.ys[i];
+	}
+
+	public void set(int i, int x, int y) {
+		this.xs[i] = x;
+		this.ys[i] = y;
+	}
+
+	/** The points as GridPoint_2 objects (for rendering) */
+	public GridPoint_2[] toGridPoints() {
+		GridPoint_2[] points = new GridPoint_2[this.size()];
+		for (int i = 0; i < points.length; i++)
+			points[i] = new GridPoint_2(this.xs[i], this.ys[i]);
+		return points;
+	}
+
+	/**
+	 * Return the bounding box of the points
+	 *
+	 * @return {xmin, ymin, xmax, ymax}
+	 */
+	public int[] getBoundingBox() {
+		int xmin = Integer.MAX_VALUE, ymin = Integer.MAX_VALUE, xmax = Integer.MIN_VALUE, ymax = Integer.MIN_VALUE;
+		for (int i = 0; i < this.xs.length; i++) {
+			xmin = Math.min(xmin, this.xs[i]);
+			ymin = Math.min(ymin, this.ys[i]);
+			xmax = Math.max(xmax, this.xs[i]);
+			ymax = Math.max(ymax, this.ys[i]);
+		}
+		return new int[] {xmin, ymin, xmax, ymax};
+	}
+}
@@ -0,0 +1,194 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary versions of the instance (.instance) and polygon (.min, .max) files, and converters from/to the text files. <br>
+ *
+ * All the values are little-endian. An instance file is made of a header of 40 bytes: <br>
+ * 	-) int magic number INSTANCE_MAGIC, int version, int n <br>
+ * 	-) int xmin, ymin, xmax, ymax: the bounding box of the points <br>
+ * 	-) int reserved (0), long area of the convex hull (-1 if unknown) <br>
+ * followed by the n x-coordinates and then the n y-coordinates (ints). <br>
+ * A polygon file is made of a header of 24 bytes: int magic number POLYGON_MAGIC, int version, int n, int reserved (0),
+ * long area of the polygon (-1 if unknown), followed by the n point indices (ints, in ccw order). <br>
+ *
+ * The files are read by memory-mapping them: the arrays are filled by bulk copies, without any parsing.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PointCloud_BinaryIO {
+
+	/** "OAPI" and "OAPP" (as little-endian ints) */
+	public static final int INSTANCE_MAGIC = 0x4950414F, POLYGON_MAGIC = 0x5050414F;
+	public static final int VERSION = 1;
+	static final int INSTANCE_HEADER_SIZE = 40, POLYGON_HEADER_SIZE = 24;
+
+	/**
+	 * Convert a file from text to binary, or from binary to text (depending on the input file).
+	 * The kind of file (instance or polygon) is also found from the input file.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println("Error: two arguments required: input file, output file");
+			System.exit(0);
+		}
+		convert(args[0], args[1]);
+	}
+
+	/** Convert a file from text to binary, or from binary to text */
+	public static void convert(String input, String output) {
+		ByteBuffer start = map(input);
+		int magic = start.remaining() >= 4 ? start.getInt(0) : 0;
+		if (magic == INSTANCE_MAGIC)
+			writeInstanceText(readInstance(input), output);
+		else if (magic == POLYGON_MAGIC)
+			PointCloud_IO.write(readPolygon(input), output);
+		else if (start.remaining() > 0 && start.get(0) == '#')
+			writeInstance(PointCloud_IO.readMapped(input), output);
+		else
+			writePolygon(readPolygonText(input), -1, output);
+	}
+
+	/**
+	 * Load a point cloud from a binary instance file
+	 */
+	public static PackedPoints readInstance(String filename) {
+		ByteBuffer buffer = map(filename);
+		int n = readHeader(buffer, INSTANCE_MAGIC, INSTANCE_HEADER_SIZE);
+		if (buffer.capacity() < INSTANCE_HEADER_SIZE + 8L * n)
+			throw new Error("Error: wrong binary file " + filename);
+
+		PackedPoints points = new PackedPoints(n);
+		points.convexHullArea = buffer.getLong(32);
+		buffer.position(INSTANCE_HEADER_SIZE);
+		IntBuffer coordinates = buffer.asIntBuffer();
+		coordinates.get(points.xs);
+		coordinates.get(points.ys);
+		return points;
+	}
+
+	/**
+	 * Write a point cloud to a binary instance file
+	 */
+	public static void writeInstance(PackedPoints points, String filename) {
+		int n = points.size();
+		int[] box = points.getBoundingBox();
+		ByteBuffer buffer = ByteBuffer.allocate(INSTANCE_HEADER_SIZE + 8 * n).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(INSTANCE_MAGIC).putInt(VERSION).putInt(n);
+		buffer.putInt(box[0]).putInt(box[1]).putInt(box[2]).putInt(box[3]);
+		buffer.putInt(0).putLong(points.convexHullArea);
+		IntBuffer coordinates = buffer.asIntBuffer();
+		coordinates.put(points.xs);
+		coordinates.put(points.ys);
+		write(buffer, filename);
+	}
+
+	/**
+	 * Load a polygon (a permutation of point indices) from a binary polygon file
+	 */
+	public static int[] readPolygon(String filename) {
+		ByteBuffer buffer = map(filename);
+		int n = readHeader(buffer, POLYGON_MAGIC, POLYGON_HEADER_SIZE);
+		if (buffer.capacity() < POLYGON_HEADER_SIZE + 4L * n)
+			throw new Error("Error: wrong binary file " + filename);
+
+		int[] polygon = new int[n];
+		buffer.position(POLYGON_HEADER_SIZE);
+		buffer.asIntBuffer().get(polygon);
+		return polygon;
+	}
+
+	/**
+	 * Write a polygon to a binary polygon file
+	 *
+	 * @param area  the area of the polygon, -1 if unknown
+	 */
+	public static void writePolygon(int[] polygon, long area, String filename) {
+		ByteBuffer buffer = ByteBuffer.allocate(POLYGON_HEADER_SIZE + 4 * polygon.length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(POLYGON_MAGIC).putInt(VERSION).putInt(polygon.length).putInt(0).putLong(area);
+		buffer.asIntBuffer().put(polygon);
+		write(buffer, filename);
+	}
+
+	/**
+	 * Load a polygon from a text file (one point index per line, as written by PointCloud_IO.write)
+	 */
+	public static int[] readPolygonText(String filename) {
+		MappedByteBuffer buffer = map(filename);
+		int[] polygon = new int[16];
+		int n = 0;
+		while (true) {
+			// skip the blank characters at the end of the file
+			while (buffer.hasRemaining() && Character.isWhitespace(buffer.get(buffer.position())))
+				buffer.get();
+			if (!buffer.hasRemaining())
+				break;
+			if (n == polygon.length)
+				polygon = Arrays.copyOf(polygon, 2 * n);
+			polygon[n++] = PointCloud_IO.parseInt(buffer);
+		}
+		return Arrays.copyOf(polygon, n);
+	}
+
+	/**
+	 * Write a point cloud to a text instance file (in the format read by PointCloud_IO)
+	 */
+	public static void writeInstanceText(PackedPoints points, String filename) {
+		int n = points.size();
+		StringBuilder text = new StringBuilder(32 * n + 128);
+		text.append("# point set instance (").append(n).append(" points)\n");
+		text.append("# parameters \"convex_hull\": {\"area\": \"").append(points.convexHullArea).append("\"}\n");
+		for (int i = 0; i < n; i++)
+			text.append(i).append('\t').append(points.xs[i]).append('\t').append(points.ys[i]).append('\n');
+		write(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII)), filename);
+	}
+
+	/** Check the header of a binary file, and return the number of values */
+	private static int readHeader(ByteBuffer buffer, int magic, int headerSize) {
+		if (buffer.capacity() < headerSize || buffer.getInt(0) != magic)
+			throw new Error("Error: wrong binary file");
+		int version = buffer.getInt(4);
+		if (version != VERSION)
+			throw new Error("Error: unsupported binary file version " + version);
+		int n = buffer.getInt(8);
+		if (n < 0)
+			throw new Error("Error: wrong binary file");
+		return n;
+	}
+
+	/** Memory-map the whole file (read only, little-endian) */
+	private static MappedByteBuffer map(String filename) {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new Error("Error: file too large " + filename);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return buffer;
+		}
+		catch (IOException e) {
+			throw new Error("Error: cannot read file " + filename);
+		}
+	}
+
+	/** Write the whole buffer (from its beginning) to the file */
+	private static void write(ByteBuffer buffer, String filename) {
+		buffer.clear();
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+		catch (IOException e) {
+			throw new Error("Error: cannot write file " + filename);
+		}
+	}
+}
@@ -1,3 +1,15 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 import tc.TC;
 
 /**
@@ -13,10 +25,21 @@ public class PointCloud_IO {
      * 
      */		   
     public static GridPoint_2[] read(String filename) { 
+    	return readPacked(filename).toGridPoints();
+    }
+
+    /**
+     * Load a 2D point cloud from file, the coordinates being stored in two arrays 'xs' and 'ys' (no GridPoint_2 is created)
+     * Remarks: 
+     * 	-) point indices range from 0..n-1
+     *  -) point coordinates are assumed to be integers
+     * 
+     */		   
+    public static PackedPoints readPacked(String filename) { 
     	System.out.println("Reading (integer) 2D points from file: "+filename);
 		int n=-1; // input size
-		int area=-1;
-		GridPoint_2[] result; // input points
+		long area=-1;
+		PackedPoints result; // input points
 		
 		TC.lectureDansFichier(filename);
 		String line=TC.lireLigne(); // read first line
@@ -35,9 +58,11 @@ public class PointCloud_IO {
 		if(n==-1)
 			throw new Error("Error: wrong input file");
 		else
-			result=new GridPoint_2[n];
+			result=new PackedPoints(n);
 		
 		line=TC.lireLigne(); // read second line
+		area=parseConvexHullArea(line);
+		result.convexHullArea=area;
 		
 		// start loading input points
 		System.out.print("Reading "+n+" input points...");
@@ -50,7 +75,7 @@ public class PointCloud_IO {
 			if(i!=count)
 				throw new Error("Error: wrong point index "+count);
 			
-			result[i]=new GridPoint_2(x, y);
+			result.set(i, x, y);
 		}
 		System.out.println("done");
 		
@@ -59,6 +84,116 @@ public class PointCloud_IO {
     	return result;
     }
 
+    /**
+     * Load a 2D point cloud from file, as readPacked(), the file being memory-mapped: the integers are parsed
+     * directly from the bytes of the file (no String is created, except for the header)
+     * Remarks: 
+     * 	-) point indices range from 0..n-1
+     *  -) point coordinates are assumed to be integers
+     * 
+     */		   
+    public static PackedPoints readMapped(String filename) { 
+    	System.out.println("Reading (integer) 2D points from file: "+filename);
+    	MappedByteBuffer buffer;
+    	try (FileChannel channel=FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+    		if(channel.size()>Integer.MAX_VALUE)
+    			throw new Error("Error: input file too large");
+    		buffer=channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    	}
+    	catch(IOException e) {
+    		throw new Error("Error: cannot read file "+filename);
+    	}
+    	
+    	// the size is given in the first line: "... (n points) ..."
+    	int n=-1;
+    	String[] parse=readLine(buffer).split("\\s+");
+    	for(int i=1;i<parse.length && n==-1;i++) {
+    		if(parse[i].contains("points"))
+    			n=Integer.parseInt(parse[i-1].replace("(", ""));
+    	}
+    	if(n==-1)
+    		throw new Error("Error: wrong input file");
+    	PackedPoints result=new PackedPoints(n);
+    	result.convexHullArea=parseConvexHullArea(readLine(buffer)); // second line
+    	System.out.print("Reading "+n+" input points...");
+    	for(int i=0;i<n;i++) {
+    		int count=parseInt(buffer);
+    		int x=parseInt(buffer);
+    		int y=parseInt(buffer);
+    		if(i!=count)
+    			throw new Error("Error: wrong point index "+count);
+    		
+    		result.set(i, x, y);
+    	}
+    	System.out.println("done");
+    	
+    	return result;
+    }
+    
+    /**
+     * Parse the area of the convex hull given in the second line of an instance file:
+     * # parameters "convex_hull": {"area": "167380"}
+     * 
+     * @return the area, or -1 if it is not given
+     */
+    static long parseConvexHullArea(String line) {
+    	int i=line.indexOf("\"area\"");
+    	if(line.indexOf("convex_hull")<0 || i<0)
+    		return -1;
+    	i+="\"area\"".length();
+    	while(i<line.length() && !Character.isDigit(line.charAt(i)))
+    		i++;
+    	int j=i;
+    	while(j<line.length() && Character.isDigit(line.charAt(j)))
+    		j++;
+    	if(i==j)
+    		return -1;
+    	return Long.parseLong(line.substring(i, j));
+    }
+    
+    /** Read the bytes up to the end of the line (excluded) */
+    private static String readLine(MappedByteBuffer buffer) {
+    	int start=buffer.position();
+    	while(buffer.hasRemaining() && buffer.get(buffer.position())!='\n')
+    		buffer.get();
+    	byte[] line=new byte[buffer.position()-start];
+    	for(int k=0;k<line.length;k++)
+    		line[k]=buffer.get(start+k);
+    	if(buffer.hasRemaining())
+    		buffer.get(); // end of line
+    	return new String(line, StandardCharsets.UTF_8);
+    }
+    
+    /** Parse the next integer, skipping the blank characters before it */
+    static int parseInt(MappedByteBuffer buffer) {
+    	byte c=' ';
+    	while(buffer.hasRemaining() && (c==' ' || c=='\t' || c=='\r' || c=='\n'))
+    		c=buffer.get();
+    	boolean negative=c=='-';
+    	if(negative && buffer.hasRemaining())
+    		c=buffer.get();
+    	if(c<'0' || c>'9')
+    		throw new Error("Error: wrong input file");
+    	
+    	long value=0;
+    	while(true) {
+    		value=10*value+(c-'0');
+    		if(value>(long)Integer.MAX_VALUE+1)
+    			throw new Error("Error: integer too large");
+    		if(!buffer.hasRemaining())
+    			break;
+    		c=buffer.get(buffer.position());
+    		if(c<'0' || c>'9')
+    			break;
+    		buffer.get();
+    	}
+    	if(negative)
+    		value=-value;
+    	if(value>Integer.MAX_VALUE)
+    		throw new Error("Error: integer too large");
+    	return (int)value;
+    }
+
     /**
      * Return the bounding box containing the points
      * 
@@ -78,6 +213,23 @@ public class PointCloud_IO {
     	System.out.println(" - area of the bounding box: "+((long)xmax*(long)ymax)); // computations should be done on 64 bits
     	return new int[] {xmax, ymax};
     }
+    public static int[] getBoundingBox(PackedPoints points) {
+    	int[] box=points.getBoundingBox();
+    	if(points.size()>0 && (box[0]<0 || box[1]<0))
+    		throw new Error("Error: wrong bounding box");
+    	int xmax=Math.max(0, box[2]), ymax=Math.max(0, box[3]);
+    	
+    	System.out.print("Bounding box: [0, "+xmax+"]x[0, "+ymax+"]");
+    	System.out.println(" - area of the bounding box: "+((long)xmax*(long)ymax)); // computations should be done on 64 bits
+    	return new int[] {xmax, ymax};
+    }
+
+    /** One polygon writer per thread (a writer reuses its buffer) */
+    static final ThreadLocal<PolygonWriter> writers=new ThreadLocal<PolygonWriter>() {
+    	protected PolygonWriter initialValue() {
+    		return new PolygonWriter();
+    	}
+    };
 
     /**
      * Write a polygon to file. <br>
@@ -88,18 +240,53 @@ public class PointCloud_IO {
      */		   
     public static void write(int[] polygon, String filename) { 
     	if(polygon!=null) {
-    		System.out.print("Writing a polygon to file: "+filename+"...");
-    		int n=polygon.length; // input size
-
-    		TC.ecritureDansNouveauFichier(filename);
-    		for(int i=0; i<n; i++)
-    			TC.println(polygon[i]); // the index of the i-th point on the boundary of the polygon (in ccw order)
-
-    		TC.ecritureSortieStandard(); // end of file
-    		System.out.println("done");
+    		writers.get().write(polygon, filename); // the index of the i-th point on the boundary of the polygon (in ccw order), one per line
+    		System.out.println("Writing a polygon to file: "+filename+"...done");
     	}
     	else
     		System.out.println("Writing a polygon to file: polygon not defined");
     }
 
+    /** Thread writing the second polygon of write(polygon1, filename1, polygon2, filename2), created at the first call */
+    static final ExecutorService secondWriter=Executors.newSingleThreadExecutor(new ThreadFactory() {
+    	public Thread newThread(Runnable task) {
+    		Thread thread=new Thread(task, "PointCloud_IO writer");
+    		thread.setDaemon(true); // it does not keep the JVM alive
+    		return thread;
+    	}
+    });
+
+    /**
+     * Write two polygons (typically the minimal and maximal ones) to two files at the same time:
+     * the second one is written by a long-lived thread (so that its writer buffer is reused from one call to the next),
+     * and any exception thrown while writing it is rethrown in the calling thread
+     */
+    public static void write(int[] polygon1, String filename1, final int[] polygon2, final String filename2) {
+    	Future<?> second=secondWriter.submit(new Runnable() {
+    		public void run() {
+    			write(polygon2, filename2);
+    		}
+    	});
+    	try {
+    		write(polygon1, filename1);
+    	}
+    	finally {
+    		try {
+    			second.get();
+    		}
+    		catch(InterruptedException e) {
+    			Thread.currentThread().interrupt();
+    			throw new Error("Error: interrupted while writing "+filename2);
+    		}
+    		catch(ExecutionException e) {
+    			Throwable cause=e.getCause();
+    			if(cause instanceof Error)
+    				throw (Error)cause;
+    			if(cause instanceof RuntimeException)
+    				throw (RuntimeException)cause;
+    			throw new Error("Error: cannot write "+filename2, cause);
+    		}
+    	}
+    }
+
 }
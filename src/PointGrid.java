@@ -0,0 +1,122 @@
+
+/**
+ * Uniform grid over a subset of the input points, supporting deletions. <br>
+ *
+ * It is used to answer "is there a point of the subset lying in the triangle (p, a, b)?" by visiting only
+ * the cells overlapping the bounding box of the triangle (instead of scanning all the points).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PointGrid {
+
+	int[] xs, ys;
+
+	int xmin, ymin;
+	/** size of a cell (the same in both directions) */
+	long cellSize;
+	int columns, rows;
+
+	/** The points of the cell c are cellPoints[cellStart[c] .. cellStart[c]+cellCount[c]-1] */
+	int[] cellStart, cellCount;
+	int[] cellPoints;
+	/** position of each point in cellPoints, -1 if the point is not in the grid */
+	int[] position;
+
+	/**
+	 * Build the grid storing the points of the subset, with about 2 points per cell
+	 */
+	public PointGrid(PackedPoints points, IntSet subset) {
+		int size = subset.size();
+		this.xs = points.xs;
+		this.ys = points.ys;
+		this.position = new int[points.size()];
+		java.util.Arrays.fill(this.position, -1);
+
+		int[] box = points.getBoundingBox();
+		this.xmin = box[0];
+		this.ymin = box[1];
+		int xmax = box[2], ymax = box[3];
+		long width = Math.max((long) xmax - this.xmin, (long) ymax - this.ymin) + 1;
+		int cellsPerSide = Math.max(1, (int) Math.sqrt(size / 2.));
+		this.cellSize = (width + cellsPerSide - 1) / cellsPerSide;
+		this.columns = (int) (((long) xmax - this.xmin) / this.cellSize) + 1;
+		this.rows = (int) (((long) ymax - this.ymin) / this.cellSize) + 1;
+
+		// counting sort of the points by cell
+		int cells = this.columns * this.rows;
+		this.cellStart = new int[cells + 1];
+		this.cellCount = new int[cells];
+		for (int i = 0; i < size; i++)
+			this.cellStart[this.cellOf(subset.get(i)) + 1]++;
+		for (int c = 0; c < cells; c++)
+			this.cellStart[c + 1] += this.cellStart[c];
+		this.cellPoints = new int[size];
+		for (int i = 0; i < size; i++) {
+			int p = subset.get(i);
+			int c = this.cellOf(p);
+			int k = this.cellStart[c] + this.cellCount[c]++;
+			this.cellPoints[k] = p;
+			this.position[p] = k;
+		}
+	}
+
+	private int column(int x) {
+		return (int) (((long) x - this.xmin) / this.cellSize);
+	}
+
+	private int row(int y) {
+		return (int) (((long) y - this.ymin) / this.cellSize);
+	}
+
+	private int cellOf(int p) {
+		return this.row(this.ys[p]) * this.columns + this.column(this.xs[p]);
+	}
+
+	public boolean contains(int p) {
+		return this.position[p] >= 0;
+	}
+
+	/**
+	 * Remove the point p from the grid (it is swapped with the last point of its cell)
+	 */
+	public void remove(int p) {
+		int k = this.position[p];
+		if (k < 0)
+			return;
+		int c = this.cellOf(p);
+		int last = this.cellStart[c] + this.cellCount[c] - 1;
+		int q = this.cellPoints[last];
+		this.cellPoints[k] = q;
+		this.position[q] = k;
+		this.cellPoints[last] = p;
+		this.position[p] = -1;
+		this.cellCount[c]--;
+	}
+
+	/**
+	 * Look for a point of the grid lying (strictly) in the triangle (p, a, b), in the sense of OptimalPolygon.isInTriangle
+	 *
+	 * @return such a point, or -1 if the triangle is empty
+	 */
+	public int findInTriangle(OptimalPolygon op, int p, int a, int b) {
+		int x0 = Math.min(this.xs[p], Math.min(this.xs[a], this.xs[b]));
+		int x1 = Math.max(this.xs[p], Math.max(this.xs[a], this.xs[b]));
+		int y0 = Math.min(this.ys[p], Math.min(this.ys[a], this.ys[b]));
+		int y1 = Math.max(this.ys[p], Math.max(this.ys[a], this.ys[b]));
+		int c0 = this.column(x0), c1 = this.column(x1);
+		int r0 = this.row(y0), r1 = this.row(y1);
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int cell = r * this.columns + c;
+				int end = this.cellStart[cell] + this.cellCount[cell];
+				for (int k = this.cellStart[cell]; k < end; k++) {
+					int q = this.cellPoints[k];
+					if (op.isInTriangle(q, p, a, b))
+						return q;
+				}
+			}
+		}
+		return -1;
+	}
+}
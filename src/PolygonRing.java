@@ -0,0 +1,126 @@
+
+/**
+ * A polygon stored as a doubly linked ring of point indices: next[v] and prev[v] are the neighbors
+ * of the vertex v (in ccw order). <br>
+ *
+ * Inserting a point in an edge takes constant time (no shifting as with ArrayList.add(index, ...)),
+ * and nothing is boxed.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PolygonRing {
+
+	int[] next, prev;
+	boolean[] contains;
+	/** First vertex of the polygon (the permutation returned by toArray starts at this vertex) */
+	int start;
+	int size;
+
+	/**
+	 * Initialize the ring with the vertices polygon[0..count-1], over a set of n points
+	 */
+	public PolygonRing(int n, int[] polygon, int count) {
+		this.next = new int[n];
+		this.prev = new int[n];
+		this.contains = new boolean[n];
+		this.size = count;
+		this.start = polygon[0];
+		for (int i = 0; i < count; i++) {
+			int v = polygon[i];
+			this.contains[v] = true;
+			this.next[v] = polygon[(i + 1) % count];
+			this.prev[v] = polygon[(i + count - 1) % count];
+		}
+	}
+
+	public int next(int v) {
+		return this.next[v];
+	}
+
+	public int prev(int v) {
+		return this.prev[v];
+	}
+
+	public boolean contains(int v) {
+		return this.contains[v];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int start() {
+		return this.start;
+	}
+
+	/**
+	 * Insert the point p in the edge (v, next[v])
+	 */
+	public void insertAfter(int v, int p) {
+		int w = this.next[v];
+		this.next[v] = p;
+		this.prev[p] = v;
+		this.next[p] = w;
+		this.prev[w] = p;
+		this.contains[p] = true;
+		this.size++;
+	}
+
+	/**
+	 * Remove the vertex v from the polygon: its neighbors are joined by an edge
+	 */
+	public void remove(int v) {
+		int u = this.prev[v], w = this.next[v];
+		this.next[u] = w;
+		this.prev[w] = u;
+		this.contains[v] = false;
+		this.size--;
+		if (this.start == v)
+			this.start = w;
+	}
+
+	/**
+	 * Reverse the chain of vertices going from b to c (following next): the edges (prev[b], b) and (c, next[c])
+	 * are replaced by (prev[b], c) and (b, next[c]). The chain should not contain all the vertices.
+	 */
+	public void reverse(int b, int c) {
+		int a = this.prev[b], d = this.next[c];
+		int v = b;
+		while (true) {
+			int w = this.next[v];
+			this.next[v] = this.prev[v];
+			this.prev[v] = w;
+			if (v == c)
+				break;
+			v = w;
+		}
+		this.next[a] = c;
+		this.prev[c] = a;
+		this.next[b] = d;
+		this.prev[d] = b;
+	}
+
+	/** Index of the vertex v in the polygon, starting from the first vertex (linear time) */
+	public int positionOf(int v) {
+		int position = 0;
+		for (int u = this.start; u != v; u = this.next[u])
+			position++;
+		return position;
+	}
+
+	/**
+	 * Return the polygon as a permutation of point indices, starting from the first vertex
+	 *
+	 * @param length  size of the returned array (at least the size of the polygon, the remaining entries are 0)
+	 */
+	public int[] toArray(int length) {
+		int[] polygon = new int[length];
+		int v = this.start;
+		for (int i = 0; i < this.size; i++) {
+			polygon[i] = v;
+			v = this.next[v];
+		}
+		return polygon;
+	}
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer of polygon files (one point index per line, as PointCloud_IO.write). <br>
+ *
+ * The indices are encoded directly as ASCII digits in a byte buffer, which is written to the file through a
+ * FileChannel each time it is full: no String is created. The buffer is reused from one file to the next,
+ * so a writer should not be shared between threads (see PointCloud_IO.write).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PolygonWriter {
+
+	static final int BUFFER_SIZE = 1 << 16;
+	/** an index takes at most 11 characters (sign included), followed by the end of line */
+	static final int MAX_LINE_SIZE = 12;
+
+	byte[] bytes = new byte[BUFFER_SIZE];
+	ByteBuffer buffer = ByteBuffer.wrap(this.bytes);
+	/** number of bytes of the buffer filled so far */
+	int size;
+
+	/**
+	 * Write the polygon to the file (which is replaced if it already exists)
+	 */
+	public void write(int[] polygon, String filename) {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			this.size = 0;
+			for (int i = 0; i < polygon.length; i++) {
+				if (this.size + MAX_LINE_SIZE > BUFFER_SIZE)
+					this.flush(channel);
+				this.put(polygon[i]);
+				this.bytes[this.size++] = '\n';
+			}
+			this.flush(channel);
+		}
+		catch (IOException e) {
+			throw new Error("Error: cannot write file " + filename);
+		}
+	}
+
+	/** Write the decimal digits of v at the end of the buffer */
+	private void put(int v) {
+		long value = v;
+		if (value < 0) {
+			this.bytes[this.size++] = '-';
+			value = -value;
+		}
+		int start = this.size;
+		do {
+			this.bytes[this.size++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		// the digits have been written from right to left
+		for (int i = start, j = this.size - 1; i < j; i++, j--) {
+			byte b = this.bytes[i];
+			this.bytes[i] = this.bytes[j];
+			this.bytes[j] = b;
+		}
+	}
+
+	private void flush(FileChannel channel) throws IOException {
+		this.buffer.clear();
+		this.buffer.limit(this.size);
+		while (this.buffer.hasRemaining())
+			channel.write(this.buffer);
+		this.size = 0;
+	}
+}
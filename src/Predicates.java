@@ -0,0 +1,150 @@
+import java.math.BigInteger;
+
+/**
+ * Exact geometric predicates on integer coordinates (orientation, areas, distances). <br>
+ *
+ * When all the coordinate differences fit on 31 bits (this is the case for non negative int coordinates),
+ * every product of two differences fits on 62 bits and the computations are done on 64 bits integers:
+ * the results are exact. Otherwise the orientation test uses 128 bits products (Math.multiplyHigh),
+ * and the areas and distances are computed with BigInteger.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class Predicates {
+
+	/** Largest coordinate difference for which the 64 bits computations cannot overflow */
+	static final long MAX_EXACT_SPAN = Integer.MAX_VALUE;
+	/** Relative error bound of the floating point in-circle test (a safe upper bound of Shewchuk's one) */
+	static final double IN_CIRCLE_ERROR = 1e-14;
+
+	int[] xs, ys;
+	int xmin, ymin;
+	/** true if the bounding box is small enough for the 64 bits computations */
+	boolean fitsInLong;
+
+	public Predicates(PackedPoints points) {
+		this.xs = points.xs;
+		this.ys = points.ys;
+		int[] box = points.getBoundingBox();
+		this.xmin = box[0];
+		this.ymin = box[1];
+		this.fitsInLong = (long) box[2] - box[0] <= MAX_EXACT_SPAN && (long) box[3] - box[1] <= MAX_EXACT_SPAN;
+	}
+
+	/**
+	 * Sign of the cross product (q-p)x(r-p)
+	 *
+	 * @return 1 if r lies on the left of (p, q), -1 if it lies on the right, 0 if the three points are collinear
+	 */
+	public int orientation(int p, int q, int r) {
+		long dx1 = (long) this.xs[q] - this.xs[p], dy1 = (long) this.ys[q] - this.ys[p];
+		long dx2 = (long) this.xs[r] - this.xs[p], dy2 = (long) this.ys[r] - this.ys[p];
+		if (this.fitsInLong)
+			return Long.signum(dx1 * dy2 - dy1 * dx2);
+		return compareProducts(dx1, dy2, dy1, dx2);
+	}
+
+	/**
+	 * Twice the signed area of the triangle (p, q, r), i.e. the cross product (q-p)x(r-p), without any allocation
+	 * (except when the coordinates are too large for the 64 bits computations)
+	 */
+	public long doubleTriangleArea(int p, int q, int r) {
+		long dx1 = (long) this.xs[q] - this.xs[p], dy1 = (long) this.ys[q] - this.ys[p];
+		long dx2 = (long) this.xs[r] - this.xs[p], dy2 = (long) this.ys[r] - this.ys[p];
+		if (this.fitsInLong)
+			return dx1 * dy2 - dy1 * dx2;
+		return toLong(BigInteger.valueOf(dx1).multiply(BigInteger.valueOf(dy2))
+				.subtract(BigInteger.valueOf(dy1).multiply(BigInteger.valueOf(dx2))));
+	}
+
+	/**
+	 * In-circle test: whether s lies inside the circle going through p, q and r (given in ccw order)
+	 *
+	 * @return 1 if s lies inside the circle, -1 if it lies outside, 0 if it lies on the circle
+	 */
+	public int inCircle(int p, int q, int r, int s) {
+		long pdx = (long) this.xs[p] - this.xs[s], pdy = (long) this.ys[p] - this.ys[s];
+		long qdx = (long) this.xs[q] - this.xs[s], qdy = (long) this.ys[q] - this.ys[s];
+		long rdx = (long) this.xs[r] - this.xs[s], rdy = (long) this.ys[r] - this.ys[s];
+		// floating point evaluation first: its sign is certain when the determinant is far from 0
+		double pLift = (double) pdx * pdx + (double) pdy * pdy;
+		double qLift = (double) qdx * qdx + (double) qdy * qdy;
+		double rLift = (double) rdx * rdx + (double) rdy * rdy;
+		double qr = (double) qdx * rdy - (double) rdx * qdy, rp = (double) rdx * pdy - (double) pdx * rdy;
+		double pq = (double) pdx * qdy - (double) qdx * pdy;
+		double determinant = pLift * qr + qLift * rp + rLift * pq;
+		double permanent = pLift * (Math.abs((double) qdx * rdy) + Math.abs((double) rdx * qdy))
+				+ qLift * (Math.abs((double) rdx * pdy) + Math.abs((double) pdx * rdy))
+				+ rLift * (Math.abs((double) pdx * qdy) + Math.abs((double) qdx * pdy));
+		if (Math.abs(determinant) > IN_CIRCLE_ERROR * permanent)
+			return determinant > 0 ? 1 : -1;
+
+		BigInteger bpdx = BigInteger.valueOf(pdx), bpdy = BigInteger.valueOf(pdy);
+		BigInteger bqdx = BigInteger.valueOf(qdx), bqdy = BigInteger.valueOf(qdy);
+		BigInteger brdx = BigInteger.valueOf(rdx), brdy = BigInteger.valueOf(rdy);
+		BigInteger exact = bpdx.multiply(bpdx).add(bpdy.multiply(bpdy)).multiply(bqdx.multiply(brdy).subtract(brdx.multiply(bqdy)))
+				.add(bqdx.multiply(bqdx).add(bqdy.multiply(bqdy)).multiply(brdx.multiply(bpdy).subtract(bpdx.multiply(brdy))))
+				.add(brdx.multiply(brdx).add(brdy.multiply(brdy)).multiply(bpdx.multiply(bqdy).subtract(bqdx.multiply(bpdy))));
+		return exact.signum();
+	}
+
+	/** Sign of the inner product (q-p).(r-p) */
+	public int dotProductSign(int p, int q, int r) {
+		long dx1 = (long) this.xs[q] - this.xs[p], dy1 = (long) this.ys[q] - this.ys[p];
+		long dx2 = (long) this.xs[r] - this.xs[p], dy2 = (long) this.ys[r] - this.ys[p];
+		if (this.fitsInLong)
+			return Long.signum(dx1 * dx2 + dy1 * dy2);
+		return compareProducts(dx1, dx2, -dy1, dy2);
+	}
+
+	/** Compare a*b and c*d, the products being computed on 128 bits */
+	static int compareProducts(long a, long b, long c, long d) {
+		long high1 = Math.multiplyHigh(a, b), high2 = Math.multiplyHigh(c, d);
+		if (high1 != high2)
+			return high1 < high2 ? -1 : 1;
+		return Long.signum(Long.compareUnsigned(a * b, c * d));
+	}
+
+	/** Square of the euclidean distance between p and q */
+	public long squareDistance(int p, int q) {
+		long dx = (long) this.xs[p] - this.xs[q], dy = (long) this.ys[p] - this.ys[q];
+		if (this.fitsInLong)
+			return dx * dx + dy * dy;
+		BigInteger bx = BigInteger.valueOf(dx), by = BigInteger.valueOf(dy);
+		return toLong(bx.multiply(bx).add(by.multiply(by)));
+	}
+
+	/**
+	 * Twice the signed area of the polygon (positive if its vertices are listed in ccw order)
+	 *
+	 * @param polygon  the vertices of the polygon (point indices)
+	 */
+	public long doubleSignedArea(int[] polygon) {
+		int size = polygon.length;
+		if (this.fitsInLong) {
+			// the coordinates are translated to [0, 2^31[: the partial sums may wrap around,
+			// but the final result (at most twice the area of the bounding box) fits on 63 bits
+			long area = 0;
+			for (int i = 0; i < size; i++) {
+				int p = polygon[i], q = polygon[(i + 1) % size];
+				area += ((long) this.xs[p] - this.xmin) * ((long) this.ys[q] - this.ymin)
+						- ((long) this.xs[q] - this.xmin) * ((long) this.ys[p] - this.ymin);
+			}
+			return area;
+		}
+		BigInteger area = BigInteger.ZERO;
+		for (int i = 0; i < size; i++) {
+			int p = polygon[i], q = polygon[(i + 1) % size];
+			area = area.add(BigInteger.valueOf((long) this.xs[p] - this.xmin).multiply(BigInteger.valueOf((long) this.ys[q] - this.ymin)))
+					.subtract(BigInteger.valueOf((long) this.xs[q] - this.xmin).multiply(BigInteger.valueOf((long) this.ys[p] - this.ymin)));
+		}
+		return toLong(area);
+	}
+
+	private static long toLong(BigInteger value) {
+		if (value.bitLength() > 63)
+			throw new Error("Error: value exceeding 64 bits: " + value);
+		return value.longValue();
+	}
+}
@@ -0,0 +1,111 @@
+
+/**
+ * Stable LSD radix sort of packed long keys carrying int payloads, used to sort points in lexicographic order. <br>
+ *
+ * The coordinates of a point are packed in a single key: (x - xmin) in the high bits and (y - ymin) in the low bits,
+ * so that comparing keys (as unsigned integers) is the same as comparing the points in lexicographic order.
+ * The keys are then sorted in O(n) time by 11 bits digits (only the digits actually used by the keys are sorted),
+ * without boxing and without any comparator call.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class RadixSort {
+
+	static final int DIGIT_BITS = 11;
+	static final int RADIX = 1 << DIGIT_BITS;
+	/** below this size, an insertion sort is faster */
+	static final int SMALL_SIZE = 64;
+
+	/**
+	 * Sort items[0..n-1] in lexicographic order of the coordinates of the points points[items[i]]
+	 * (the items being the points themselves if 'points' is null). The sort is stable.
+	 */
+	public static void sortByCoordinates(int[] xs, int[] ys, int[] items, int[] points, int n) {
+		if (n < 2)
+			return;
+		int xmin = Integer.MAX_VALUE, ymin = Integer.MAX_VALUE, xmax = Integer.MIN_VALUE, ymax = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			int p = points == null ? items[i] : points[items[i]];
+			xmin = Math.min(xmin, xs[p]);
+			xmax = Math.max(xmax, xs[p]);
+			ymin = Math.min(ymin, ys[p]);
+			ymax = Math.max(ymax, ys[p]);
+		}
+		int yBits = 64 - Long.numberOfLeadingZeros((long) ymax - ymin);
+		int xBits = 64 - Long.numberOfLeadingZeros((long) xmax - xmin);
+
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			int p = points == null ? items[i] : points[items[i]];
+			keys[i] = (((long) xs[p] - xmin) << yBits) | ((long) ys[p] - ymin);
+		}
+		sort(keys, items, n, xBits + yBits);
+	}
+
+	/**
+	 * Stable sort of keys[0..n-1] (compared as unsigned integers, smaller than 2^bits), the payloads being moved with their keys
+	 */
+	public static void sort(long[] keys, int[] payloads, int n, int bits) {
+		if (n < SMALL_SIZE) {
+			insertionSort(keys, payloads, n);
+			return;
+		}
+		// the histograms of all the digits are computed at once (the input is often already sorted: nothing to do then)
+		int digits = Math.max(1, (bits + DIGIT_BITS - 1) / DIGIT_BITS);
+		int[][] count = new int[digits][RADIX];
+		boolean sorted = true;
+		for (int i = 0; i < n; i++) {
+			long key = keys[i];
+			if (i > 0 && Long.compareUnsigned(keys[i - 1], key) > 0)
+				sorted = false;
+			for (int d = 0; d < digits; d++)
+				count[d][(int) (key >>> (d * DIGIT_BITS)) & (RADIX - 1)]++;
+		}
+		if (sorted)
+			return;
+
+		long[] fromKeys = keys, toKeys = new long[n];
+		int[] fromPayloads = payloads, toPayloads = new int[n];
+		for (int d = 0; d < digits; d++) {
+			int shift = d * DIGIT_BITS;
+			int[] start = count[d];
+			// the keys may all have the same digit: nothing to do
+			if (start[(int) (fromKeys[0] >>> shift) & (RADIX - 1)] == n)
+				continue;
+			int sum = 0;
+			for (int k = 0; k < RADIX; k++) {
+				int c = start[k];
+				start[k] = sum;
+				sum += c;
+			}
+			for (int i = 0; i < n; i++) {
+				long key = fromKeys[i];
+				int k = start[(int) (key >>> shift) & (RADIX - 1)]++;
+				toKeys[k] = key;
+				toPayloads[k] = fromPayloads[i];
+			}
+			long[] tk = fromKeys; fromKeys = toKeys; toKeys = tk;
+			int[] tp = fromPayloads; fromPayloads = toPayloads; toPayloads = tp;
+		}
+		if (fromKeys != keys) {
+			System.arraycopy(fromKeys, 0, keys, 0, n);
+			System.arraycopy(fromPayloads, 0, payloads, 0, n);
+		}
+	}
+
+	private static void insertionSort(long[] keys, int[] payloads, int n) {
+		for (int i = 1; i < n; i++) {
+			long key = keys[i];
+			int payload = payloads[i];
+			int j = i - 1;
+			while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+				keys[j + 1] = keys[j];
+				payloads[j + 1] = payloads[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			payloads[j + 1] = payload;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the edges of a polygon, updated when edges are split. <br>
+ *
+ * Each edge is stored in all the cells it goes through, so that the edges crossing a given segment
+ * are searched among the edges stored in the cells of the segment only (instead of all the polygon edges).
+ * An edge is identified by its first vertex c, and goes from c to end[c].
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class SegmentGrid {
+
+	static final int ADD = 0, REMOVE = 1, FIND = 2;
+	/** Result of a crossing search given up because too many edges had to be tested */
+	public static final int TOO_MANY_EDGES = -2;
+
+	int[] xs, ys;
+
+	int xmin, ymin, xmax, ymax;
+	/** size of a cell (the same in both directions) */
+	long cellSize;
+	int columns, rows;
+
+	/** The edges going through the cell k are cellEdges[k][0..cellEdgesSize[k]-1] */
+	int[][] cellEdges;
+	int[] cellEdgesSize;
+	/** end[c]: second vertex of the edge starting at c, -1 if there is no such edge */
+	int[] end;
+
+	/**
+	 * Build an empty grid, covering the bounding box of the points, with about 2 edges per cell
+	 */
+	public SegmentGrid(PackedPoints points) {
+		this.xs = points.xs;
+		this.ys = points.ys;
+		this.end = new int[points.size()];
+		Arrays.fill(this.end, -1);
+
+		int[] box = points.getBoundingBox();
+		this.xmin = box[0];
+		this.ymin = box[1];
+		this.xmax = box[2];
+		this.ymax = box[3];
+		long width = Math.max((long) this.xmax - this.xmin, (long) this.ymax - this.ymin) + 1;
+		int cellsPerSide = Math.max(1, (int) Math.sqrt(points.size() / 2.));
+		if (width > Predicates.MAX_EXACT_SPAN)
+			cellsPerSide = 1; // the rasterization of the edges could overflow: a single cell is used
+		this.cellSize = (width + cellsPerSide - 1) / cellsPerSide;
+		this.columns = (int) (((long) this.xmax - this.xmin) / this.cellSize) + 1;
+		this.rows = (int) (((long) this.ymax - this.ymin) / this.cellSize) + 1;
+		this.cellEdges = new int[this.columns * this.rows][];
+		this.cellEdgesSize = new int[this.columns * this.rows];
+	}
+
+	/** Add the edge (c, d) */
+	public void add(int c, int d) {
+		this.end[c] = d;
+		this.scan(c, d, ADD, c, null, Integer.MAX_VALUE);
+	}
+
+	/** Remove the edge starting at c */
+	public void remove(int c) {
+		this.scan(c, this.end[c], REMOVE, c, null, Integer.MAX_VALUE);
+		this.end[c] = -1;
+	}
+
+	/**
+	 * Look for an edge intersecting the segment [u, v] (in the sense of OptimalPolygon.doIntersect),
+	 * the edges incident to u or v being ignored
+	 *
+	 * @return the first vertex of such an edge, or -1 if there is none
+	 */
+	public int findCrossing(OptimalPolygon op, int u, int v) {
+		return this.scan(u, v, FIND, u, op, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Same as findCrossing(op, u, v), but the search is given up after testing 'limit' edges
+	 * (the cells crossed by a long segment may store many edges)
+	 *
+	 * @return the first vertex of an edge intersecting [u, v], -1 if there is none, or TOO_MANY_EDGES
+	 */
+	public int findCrossing(OptimalPolygon op, int u, int v, int limit) {
+		return this.scan(u, v, FIND, u, op, limit);
+	}
+
+	/** Number of edges going through the cell containing the point p */
+	public int countEdgesNear(int p) {
+		return this.cellEdgesSize[this.row(this.ys[p]) * this.columns + this.column(this.xs[p])];
+	}
+
+	/** The i-th edge (given by its first vertex) going through the cell containing the point p */
+	public int edgeNear(int p, int i) {
+		return this.cellEdges[this.row(this.ys[p]) * this.columns + this.column(this.xs[p])][i];
+	}
+
+	/**
+	 * Visit the cells crossed by the segment [u, v] (and possibly a few neighboring cells),
+	 * column by column, and apply the action to each of them (at most 'limit' edges are tested by FIND)
+	 */
+	private int scan(int u, int v, int action, int edge, OptimalPolygon op, int limit) {
+		long x0 = this.xs[u], y0 = this.ys[u], x1 = this.xs[v], y1 = this.ys[v];
+		if (x1 < x0) {
+			long t = x0; x0 = x1; x1 = t;
+			t = y0; y0 = y1; y1 = t;
+		}
+		int firstColumn = this.column(x0), lastColumn = this.column(x1);
+		for (int column = firstColumn; column <= lastColumn; column++) {
+			// part of the segment lying in the (closed) column
+			long left = Math.max(x0, this.xmin + column * this.cellSize);
+			long right = Math.min(x1, this.xmin + (column + 1) * this.cellSize);
+			long yLeft = y0, yRight = y1;
+			if (x1 > x0) {
+				yLeft = y0 + Math.floorDiv((y1 - y0) * (left - x0), x1 - x0);
+				yRight = y0 + Math.floorDiv((y1 - y0) * (right - x0), x1 - x0);
+			}
+			// rounding down may lose one unit: the range is enlarged on both sides
+			int firstRow = this.row(Math.min(yLeft, yRight) - 1), lastRow = this.row(Math.max(yLeft, yRight) + 1);
+			for (int row = firstRow; row <= lastRow; row++) {
+				int k = row * this.columns + column;
+				if (action == ADD)
+					this.addToCell(k, edge);
+				else if (action == REMOVE)
+					this.removeFromCell(k, edge);
+				else {
+					int[] edges = this.cellEdges[k];
+					limit -= this.cellEdgesSize[k];
+					if (limit < 0)
+						return TOO_MANY_EDGES;
+					for (int i = 0; i < this.cellEdgesSize[k]; i++) {
+						int c = edges[i], d = this.end[c];
+						if (u != c && u != d && v != c && v != d && op.doIntersect(u, v, c, d))
+							return c;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	private int column(long x) {
+		x = Math.max(this.xmin, Math.min(this.xmax, x));
+		return (int) ((x - this.xmin) / this.cellSize);
+	}
+
+	private int row(long y) {
+		y = Math.max(this.ymin, Math.min(this.ymax, y));
+		return (int) ((y - this.ymin) / this.cellSize);
+	}
+
+	private void addToCell(int k, int c) {
+		int[] edges = this.cellEdges[k];
+		int size = this.cellEdgesSize[k];
+		if (edges == null)
+			edges = this.cellEdges[k] = new int[4];
+		else if (size == edges.length)
+			edges = this.cellEdges[k] = Arrays.copyOf(edges, 2 * size);
+		edges[size] = c;
+		this.cellEdgesSize[k] = size + 1;
+	}
+
+	private void removeFromCell(int k, int c) {
+		int[] edges = this.cellEdges[k];
+		int last = this.cellEdgesSize[k] - 1;
+		for (int i = 0; i <= last; i++) {
+			if (edges[i] == c) {
+				edges[i] = edges[last];
+				this.cellEdgesSize[k] = last;
+				return;
+			}
+		}
+	}
+}
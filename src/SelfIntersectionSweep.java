@@ -0,0 +1,284 @@
+
+/**
+ * Sweep line algorithm checking whether a polygon is simple (Shamos-Hoey variant of the Bentley-Ottmann algorithm). <br>
+ *
+ * The vertices are swept in lexicographic order, and the edges crossing the sweep line are stored in a
+ * balanced search tree (a treap stored in arrays, indexed by the edges), sorted from bottom to top. After each
+ * insertion and removal, the edges becoming neighbors in the tree are tested, and the sweep stops at the first
+ * intersection: O(n log n) expected time. <br>
+ *
+ * Two non consecutive edges intersect as soon as they have a common point (same semantics as the
+ * naive test of OptimalPolygon.doIntersect): this includes touching and collinear overlapping edges.
+ * All the predicates are exact (see Predicates).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class SelfIntersectionSweep {
+
+	int[] xs, ys;
+	Predicates predicates;
+	int[] polygon;
+	int n;
+
+	/** Endpoints of the edge i = (polygon[i], polygon[i+1]), in lexicographic order */
+	int[] left, right;
+
+	/** The treap: children, parent and priority of each edge (-1 for none) */
+	int[] below, above, parent, priority;
+	int root;
+
+	public SelfIntersectionSweep(Predicates predicates, int[] polygon) {
+		this.xs = predicates.xs;
+		this.ys = predicates.ys;
+		this.predicates = predicates;
+		this.polygon = polygon;
+		this.n = polygon.length;
+		this.left = new int[n];
+		this.right = new int[n];
+		this.below = new int[n];
+		this.above = new int[n];
+		this.parent = new int[n];
+		this.priority = new int[n];
+		for (int i = 0; i < n; i++) {
+			int p = polygon[i], q = polygon[(i + 1) % n];
+			if (this.compareLexicographically(p, q) <= 0) {
+				this.left[i] = p;
+				this.right[i] = q;
+			}
+			else {
+				this.left[i] = q;
+				this.right[i] = p;
+			}
+		}
+	}
+
+	/**
+	 * Sweep the polygon from left to right
+	 *
+	 * @return true if two non consecutive edges have a common point
+	 */
+	public boolean doesSelfIntersect() {
+		if (this.n < 4)
+			return false; // consecutive edges only
+
+		// the vertices of the polygon (given by their position) in lexicographic order
+		int[] events = new int[this.n];
+		for (int i = 0; i < this.n; i++)
+			events[i] = i;
+		RadixSort.sortByCoordinates(this.xs, this.ys, events, this.polygon, this.n);
+		// two vertices at the same place: their edges have a common point (the edges ending there would be
+		// removed before the ones starting there are inserted)
+		for (int k = 1; k < this.n; k++) {
+			if (this.compareLexicographically(this.polygon[events[k - 1]], this.polygon[events[k]]) == 0)
+				return true;
+		}
+
+		this.root = -1;
+		int seed = 0x2545F491;
+		for (int k = 0; k < this.n; k++) {
+			int i = events[k];
+			int v = this.polygon[i];
+			int previousEdge = (i + this.n - 1) % this.n, nextEdge = i;
+
+			// first remove the edges ending at v (their former neighbors become adjacent),
+			// then insert the ones starting at v and test them against their neighbors
+			for (int j = 0; j < 2; j++) {
+				int e = j == 0 ? previousEdge : nextEdge;
+				if (this.right[e] != v)
+					continue;
+				int lower = this.predecessor(e), upper = this.successor(e);
+				this.remove(e);
+				if (lower >= 0 && upper >= 0 && this.intersect(lower, upper))
+					return true;
+			}
+			for (int j = 0; j < 2; j++) {
+				int e = j == 0 ? previousEdge : nextEdge;
+				if (this.left[e] != v)
+					continue;
+				seed ^= seed << 13;
+				seed ^= seed >>> 17;
+				seed ^= seed << 5;
+				this.insert(e, seed);
+				int lower = this.predecessor(e), upper = this.successor(e);
+				if (lower >= 0 && this.intersect(lower, e))
+					return true;
+				if (upper >= 0 && this.intersect(e, upper))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Order of the edges s and t along the sweep line (negative if s is below t). <br>
+	 * The two edges are compared at the leftmost point where both are defined: the left endpoint of the edge
+	 * starting last. If this point lies on the other edge, the two edges intersect: their order is then given by
+	 * their indices, and the intersection is found by the neighbor tests.
+	 */
+	int compare(int s, int t) {
+		if (s == t)
+			return 0;
+		int a = this.left[s], c = this.left[t];
+		int order = this.compareLexicographically(a, c);
+		if (order == 0) {
+			// common left endpoint: compare the slopes
+			int o = this.orientation(a, this.right[s], this.right[t]);
+			if (o != 0)
+				return o > 0 ? -1 : 1;
+		}
+		else if (order > 0) {
+			// is the left endpoint of s above or below t?
+			int o = this.orientation(c, this.right[t], a);
+			if (o != 0)
+				return o > 0 ? 1 : -1;
+		}
+		else {
+			int o = this.orientation(a, this.right[s], c);
+			if (o != 0)
+				return o > 0 ? -1 : 1;
+		}
+		return Integer.compare(s, t);
+	}
+
+	/** Insert the edge e in the treap, with the given priority (the root has the largest one) */
+	private void insert(int e, int priority) {
+		this.below[e] = this.above[e] = -1;
+		this.priority[e] = priority;
+		int p = -1;
+		boolean isBelow = false;
+		for (int node = this.root; node >= 0; ) {
+			p = node;
+			isBelow = this.compare(e, node) < 0;
+			node = isBelow ? this.below[node] : this.above[node];
+		}
+		this.parent[e] = p;
+		if (p < 0)
+			this.root = e;
+		else if (isBelow)
+			this.below[p] = e;
+		else
+			this.above[p] = e;
+		while (this.parent[e] >= 0 && this.priority[this.parent[e]] < priority)
+			this.rotateUp(e);
+	}
+
+	/** Remove the edge e from the treap (it is rotated down to a leaf, without any comparison) */
+	private void remove(int e) {
+		while (this.below[e] >= 0 || this.above[e] >= 0) {
+			int child;
+			if (this.below[e] < 0)
+				child = this.above[e];
+			else if (this.above[e] < 0)
+				child = this.below[e];
+			else
+				child = this.priority[this.below[e]] > this.priority[this.above[e]] ? this.below[e] : this.above[e];
+			this.rotateUp(child);
+		}
+		this.replaceChild(this.parent[e], e, -1);
+	}
+
+	/** Rotate the edge e above its parent */
+	private void rotateUp(int e) {
+		int p = this.parent[e];
+		int g = this.parent[p];
+		if (this.below[p] == e) {
+			this.below[p] = this.above[e];
+			if (this.above[e] >= 0)
+				this.parent[this.above[e]] = p;
+			this.above[e] = p;
+		}
+		else {
+			this.above[p] = this.below[e];
+			if (this.below[e] >= 0)
+				this.parent[this.below[e]] = p;
+			this.below[e] = p;
+		}
+		this.parent[p] = e;
+		this.parent[e] = g;
+		this.replaceChild(g, p, e);
+	}
+
+	/** In the node p (the root if p is -1), the child 'child' becomes 'replacement' */
+	private void replaceChild(int p, int child, int replacement) {
+		if (p < 0)
+			this.root = replacement;
+		else if (this.below[p] == child)
+			this.below[p] = replacement;
+		else
+			this.above[p] = replacement;
+	}
+
+	/** The edge just below e in the treap, -1 if there are none */
+	private int predecessor(int e) {
+		if (this.below[e] >= 0) {
+			e = this.below[e];
+			while (this.above[e] >= 0)
+				e = this.above[e];
+			return e;
+		}
+		while (this.parent[e] >= 0 && this.below[this.parent[e]] == e)
+			e = this.parent[e];
+		return this.parent[e];
+	}
+
+	/** The edge just above e in the treap, -1 if there are none */
+	private int successor(int e) {
+		if (this.above[e] >= 0) {
+			e = this.above[e];
+			while (this.below[e] >= 0)
+				e = this.below[e];
+			return e;
+		}
+		while (this.parent[e] >= 0 && this.above[this.parent[e]] == e)
+			e = this.parent[e];
+		return this.parent[e];
+	}
+
+	/**
+	 * Whether the edges s and t intersect. <br>
+	 * Consecutive edges always share a vertex: they only intersect if they overlap.
+	 */
+	private boolean intersect(int s, int t) {
+		if ((s + 1) % this.n == t)
+			return this.overlap(this.polygon[t], this.polygon[s], this.polygon[(t + 1) % this.n]);
+		if ((t + 1) % this.n == s)
+			return this.overlap(this.polygon[s], this.polygon[t], this.polygon[(s + 1) % this.n]);
+
+		int p1 = this.left[s], q1 = this.right[s], p2 = this.left[t], q2 = this.right[t];
+		int o1 = this.orientation(p1, q1, p2);
+		int o2 = this.orientation(p1, q1, q2);
+		int o3 = this.orientation(p2, q2, p1);
+		int o4 = this.orientation(p2, q2, q1);
+		if (o1 != o2 && o3 != o4)
+			return true;
+		return (o1 == 0 && this.liesOn(p2, p1, q1)) || (o2 == 0 && this.liesOn(q2, p1, q1))
+				|| (o3 == 0 && this.liesOn(p1, p2, q2)) || (o4 == 0 && this.liesOn(q1, p2, q2));
+	}
+
+	/** Whether the edges (w, u) and (w, z) overlap (they are collinear and point in the same direction) */
+	private boolean overlap(int w, int u, int z) {
+		if (this.orientation(w, u, z) != 0)
+			return false;
+		return this.predicates.dotProductSign(w, u, z) > 0;
+	}
+
+	/** Whether p lies on the segment [q, r], knowing that p, q and r are collinear */
+	private boolean liesOn(int p, int q, int r) {
+		return this.xs[p] >= Math.min(this.xs[q], this.xs[r])
+				&& this.xs[p] <= Math.max(this.xs[q], this.xs[r])
+				&& this.ys[p] >= Math.min(this.ys[q], this.ys[r])
+				&& this.ys[p] <= Math.max(this.ys[q], this.ys[r]);
+	}
+
+	/** Sign of the cross product (q-p)x(r-p): positive if r lies on the left of (p, q) */
+	private int orientation(int p, int q, int r) {
+		return this.predicates.orientation(p, q, r);
+	}
+
+	private int compareLexicographically(int p, int q) {
+		if (this.xs[p] != this.xs[q])
+			return this.xs[p] < this.xs[q] ? -1 : 1;
+		return Integer.compare(this.ys[p], this.ys[q]);
+	}
+}
@@ -0,0 +1,134 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel simulated annealing over simple polygons: several independent chains (LocalSearch with a positive
+ * temperature), each one with its own random generator, run in a pool of threads. <br>
+ *
+ * The annealing is split in epochs: during an epoch every chain tries MOVES_PER_VERTEX * n moves at a
+ * given temperature, then the chains are compared, and the worst one restarts from the best one. The
+ * temperature decreases geometrically from one epoch to the next, the last epoch being a plain local search. <br>
+ *
+ * Remark: the chains are only compared between two epochs, and each chain tries a fixed number of moves:
+ * the result only depends on the seed (not on the number of threads or on the time).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class SimulatedAnnealing {
+
+	/** Number of moves tried by a chain during an epoch, per vertex */
+	static final int MOVES_PER_VERTEX = 20;
+	/** Initial temperature, as a fraction of the mean triangle area (twice the area of the polygon divided by n) */
+	static final double INITIAL_TEMPERATURE = 0.2;
+	/** Temperature of the last annealing epoch, as a fraction of the initial temperature */
+	static final double FINAL_TEMPERATURE = 0.001;
+
+	/** An epoch of a chain */
+	class Epoch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		LocalSearch chain;
+
+		Epoch(LocalSearch chain) {
+			this.chain = chain;
+		}
+
+		protected void compute() {
+			this.chain.runMoves((long) MOVES_PER_VERTEX * n);
+		}
+	}
+
+	OptimalPolygon op;
+	boolean minimize;
+	int n;
+	LocalSearch[] chains;
+
+	/** Best polygon found so far (among the ones reached at the end of the epochs) */
+	int[] best;
+	long bestArea;
+
+	/**
+	 * @param polygon  the simple polygon the chains start from
+	 * @param minimize  whether the area should be decreased (or increased)
+	 * @param chains  number of chains
+	 * @param seed  seed of the random generators (the chain i uses seed+i)
+	 */
+	public SimulatedAnnealing(OptimalPolygon op, int[] polygon, boolean minimize, int chains, long seed) {
+		if (chains < 1)
+			throw new Error("Error: wrong number of chains " + chains);
+		this.op = op;
+		this.minimize = minimize;
+		this.n = polygon.length;
+		this.chains = new LocalSearch[chains];
+		for (int i = 0; i < chains; i++)
+			this.chains[i] = new LocalSearch(op, polygon, minimize, seed + i);
+		this.best = polygon.clone();
+		this.bestArea = op.computeArea(polygon);
+	}
+
+	/**
+	 * Run the given number of epochs, with a pool of 'threads' threads
+	 *
+	 * @return the best polygon found (it passes checkValidity, the initial polygon being returned otherwise)
+	 */
+	public int[] run(int epochs, int threads) {
+		double initialTemperature = INITIAL_TEMPERATURE * 2. * this.bestArea / Math.max(1, this.n);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (int epoch = 0; epoch < epochs; epoch++) {
+				double temperature = 0;
+				if (epoch < epochs - 1)
+					temperature = initialTemperature * Math.pow(FINAL_TEMPERATURE, epoch / Math.max(1., epochs - 2));
+				ArrayList<Epoch> tasks = new ArrayList<Epoch>(this.chains.length);
+				for (LocalSearch chain : this.chains) {
+					chain.setTemperature(temperature);
+					tasks.add(new Epoch(chain));
+				}
+				for (Epoch task : tasks)
+					pool.execute(task);
+				for (Epoch task : tasks)
+					task.join();
+				this.exchange();
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		return this.best;
+	}
+
+	/** Area of the best polygon found */
+	public long getArea() {
+		return this.bestArea;
+	}
+
+	/**
+	 * End of an epoch: the best polygon is updated, and the worst chain restarts from the best one
+	 * (ties are broken by chain index, so that the result is reproducible)
+	 */
+	private void exchange() {
+		int bestChain = 0, worstChain = 0;
+		for (int i = 1; i < this.chains.length; i++) {
+			if (this.isBetter(this.chains[i].getArea(), this.chains[bestChain].getArea()))
+				bestChain = i;
+			if (this.isBetter(this.chains[worstChain].getArea(), this.chains[i].getArea()))
+				worstChain = i;
+		}
+		long area = this.chains[bestChain].getArea();
+		if (this.isBetter(area, this.bestArea)) {
+			int[] polygon = this.chains[bestChain].toArray();
+			if (this.op.checkValidity(polygon)) {
+				this.best = polygon;
+				this.bestArea = area;
+			}
+		}
+		if (worstChain != bestChain)
+			this.chains[worstChain].reset(this.chains[bestChain].toArray());
+	}
+
+	private boolean isBetter(long area1, long area2) {
+		return this.minimize ? area1 < area2 : area1 > area2;
+	}
+}
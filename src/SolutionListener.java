@@ -0,0 +1,17 @@
+
+/**
+ * Receives the best-so-far polygons of the anytime solver (see OptimalPolygon.computeMinimalAreaPolygon(long, SolutionListener)).
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public interface SolutionListener {
+
+	/**
+	 * Called each time a better valid polygon has been found (from the thread running the solver)
+	 *
+	 * @param polygon  the polygon, as a permutation of point indices (it must not be modified)
+	 * @param area  the area of the polygon
+	 */
+	public void improved(int[] polygon, long area);
+}
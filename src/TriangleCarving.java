@@ -0,0 +1,283 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Construction of a simple polygon by carving a triangulation of the points (see DelaunayTriangulation). <br>
+ *
+ * The region is the union of the remaining triangles, starting from the whole triangulation (its boundary is the
+ * convex hull). At each step a triangle having exactly one edge (a, b) on the boundary, and whose third vertex c
+ * is not on the boundary, is removed: the boundary edge (a, b) is replaced by (a, c) and (c, b), so that the
+ * region stays a simple polygon, and gets one more vertex. The carving stops when all the points are on the
+ * boundary. <br>
+ *
+ * The triangles are chosen with the same score as the greedy insertion (see InsertionScore): the largest ones
+ * first for the minimal area polygon, the smallest ones for the maximal area polygon. They are kept in a heap,
+ * checked lazily when they reach its top (O(n log n) time). <br>
+ *
+ * Remark: when no triangle can be removed, an edge (b, c) of a triangle (a, b, c) of the boundary is flipped, if
+ * the vertex w on the other side of (b, c) is not on the boundary: the new triangle (a, b, w) can then be removed.
+ * When no such flip exists, the carving fails (this never happened on our instances). As in Lawson's algorithm,
+ * the triangles which may admit a flip are kept in a stack: the ones whose vertices are all on the boundary are
+ * pushed when their last vertex reaches the boundary or when one of their neighbors changes.
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class TriangleCarving {
+
+	/** A triangle of the boundary, with its area when it was pushed */
+	static class Candidate {
+		long area;
+		int triangle;
+		/** the candidate is outdated when its triangle has been flipped since */
+		int stamp;
+
+		Candidate(long area, int triangle, int stamp) {
+			this.area = area;
+			this.triangle = triangle;
+			this.stamp = stamp;
+		}
+	}
+
+	/** Best triangles first, ties are broken by triangle index */
+	class BestTriangleFirst implements Comparator<Candidate> {
+		public int compare(Candidate c1, Candidate c2) {
+			if (c1.area != c2.area)
+				return score.isBetter(c1.area, c2.area) ? -1 : 1;
+			return Integer.compare(c1.triangle, c2.triangle);
+		}
+	}
+
+	OptimalPolygon op;
+	Predicates predicates;
+	InsertionScore score;
+	DelaunayTriangulation triangulation;
+	int n;
+
+	/** The boundary of the region, as a ccw ring (only valid for the vertices on the boundary) */
+	int[] next;
+	boolean[] onBoundary;
+	int interiorPoints;
+
+	boolean[] removed;
+	int[] stamp;
+	PriorityQueue<Candidate> heap;
+	/** Triangles of the boundary that could not be removed: they are tried for a flip when the heap is empty */
+	int[] blocked;
+	int blockedSize;
+	/**
+	 * Triangles that may admit a flip towards the interior (see flipTowardsInterior): every triangle whose
+	 * vertices are all on the boundary has been pushed since its last change (it may appear several times)
+	 */
+	int[] flippable;
+	int flippableSize;
+
+	int flips;
+
+	public TriangleCarving(OptimalPolygon op, InsertionScore score) {
+		this.op = op;
+		this.predicates = op.predicates;
+		this.score = score;
+		this.n = op.xs.length;
+		this.triangulation = new DelaunayTriangulation(op);
+	}
+
+	/**
+	 * Carve the triangulation
+	 *
+	 * @return the polygon (a permutation of point indices), or null if the carving failed
+	 * (or if the points are collinear)
+	 */
+	public int[] run() {
+		DelaunayTriangulation dt = this.triangulation;
+		int triangles = dt.size();
+		if (triangles == 0)
+			return null;
+		this.next = new int[this.n];
+		this.onBoundary = new boolean[this.n];
+		this.removed = new boolean[triangles];
+		this.stamp = new int[triangles];
+		this.blocked = new int[triangles];
+		this.flippable = new int[triangles];
+		this.heap = new PriorityQueue<Candidate>(Math.max(1, triangles), new BestTriangleFirst());
+
+		// the boundary of the triangulation: its convex hull
+		int start = -1;
+		for (int t = 0; t < triangles; t++) {
+			for (int i = 0; i < 3; i++) {
+				if (dt.neighbor[3 * t + i] < 0) {
+					int a = dt.vertex[3 * t + i];
+					this.next[a] = dt.vertex[3 * t + (i + 1) % 3];
+					this.onBoundary[a] = true;
+					start = a;
+				}
+			}
+		}
+		for (int p = 0; p < this.n; p++) {
+			if (!this.onBoundary[p])
+				this.interiorPoints++;
+		}
+		for (int t = 0; t < triangles; t++) {
+			this.push(t);
+			this.pushFlippable(t);
+		}
+
+		while (this.interiorPoints > 0) {
+			Candidate candidate = this.heap.poll();
+			if (candidate == null) {
+				if (!this.flip())
+					return null;
+				continue;
+			}
+			int t = candidate.triangle;
+			if (this.removed[t] || candidate.stamp != this.stamp[t])
+				continue;
+			int i = this.boundaryEdge(t);
+			if (i < 0)
+				continue;
+			if (this.onBoundary[dt.vertex[3 * t + (i + 2) % 3]]) {
+				if (this.blockedSize == this.blocked.length)
+					this.blocked = Arrays.copyOf(this.blocked, 2 * this.blockedSize);
+				this.blocked[this.blockedSize++] = t;
+			}
+			else
+				this.carve(t, i);
+		}
+
+		int[] polygon = new int[this.n];
+		int size = 0;
+		int v = start;
+		do {
+			if (size == this.n)
+				return null;
+			polygon[size++] = v;
+			v = this.next[v];
+		} while (v != start);
+		return size == this.n ? polygon : null;
+	}
+
+	/** Number of edges flipped by the last run */
+	public int getFlips() {
+		return this.flips;
+	}
+
+	/** Push the triangle t in the heap if it has an edge on the boundary */
+	private void push(int t) {
+		if (this.boundaryEdge(t) >= 0) {
+			DelaunayTriangulation dt = this.triangulation;
+			long area = this.op.computeTriangleArea(dt.vertex[3 * t], dt.vertex[3 * t + 1], dt.vertex[3 * t + 2]);
+			this.heap.add(new Candidate(area, t, this.stamp[t]));
+		}
+	}
+
+	/** Index of the only edge of the triangle t lying on the boundary, -1 if there are none or several */
+	private int boundaryEdge(int t) {
+		int edge = -1;
+		for (int i = 0; i < 3; i++) {
+			if (this.triangulation.neighbor[3 * t + i] < 0) {
+				if (edge >= 0)
+					return -1;
+				edge = i;
+			}
+		}
+		return edge;
+	}
+
+	/** Remove the triangle t, whose edge i is on the boundary (its third vertex is not) */
+	private void carve(int t, int i) {
+		DelaunayTriangulation dt = this.triangulation;
+		int a = dt.vertex[3 * t + i], b = dt.vertex[3 * t + (i + 1) % 3], c = dt.vertex[3 * t + (i + 2) % 3];
+		this.next[a] = c;
+		this.next[c] = b;
+		this.onBoundary[c] = true;
+		this.interiorPoints--;
+		this.removed[t] = true;
+		int fan = dt.neighbor[3 * t + (i + 1) % 3];
+		// the edges (b, c) and (c, a) are now on the boundary
+		for (int k = 1; k <= 2; k++) {
+			int u = dt.neighbor[3 * t + (i + k) % 3];
+			dt.neighbor[3 * t + (i + k) % 3] = -1;
+			if (u >= 0) {
+				dt.setNeighbor(u, dt.vertex[3 * t + (i + k + 1) % 3], dt.vertex[3 * t + (i + k) % 3], -1);
+				this.push(u);
+			}
+		}
+		// c was inside the region: its triangles form a fan, from the one across (b, c) to the one across (c, a)
+		for (int u = fan; u >= 0; ) {
+			this.pushFlippable(u);
+			int j = 0;
+			while (dt.vertex[3 * u + j] != c)
+				j++;
+			u = dt.neighbor[3 * u + (j + 2) % 3];
+		}
+	}
+
+	/** Push the triangle t in the stack of the flippable triangles if its vertices are all on the boundary */
+	private void pushFlippable(int t) {
+		DelaunayTriangulation dt = this.triangulation;
+		if (t < 0 || this.removed[t] || !this.onBoundary[dt.vertex[3 * t]] || !this.onBoundary[dt.vertex[3 * t + 1]]
+				|| !this.onBoundary[dt.vertex[3 * t + 2]])
+			return;
+		if (this.flippableSize == this.flippable.length)
+			this.flippable = Arrays.copyOf(this.flippable, 2 * this.flippableSize);
+		this.flippable[this.flippableSize++] = t;
+	}
+
+	/**
+	 * Flip an edge of a blocked triangle, so that it can be removed. If there are none, any triangle whose vertices
+	 * are on the boundary (taken from the stack of the flippable triangles) is flipped with a neighbor having a vertex
+	 * w inside the region: the two new triangles have w as a vertex, so that the number of triangles whose vertices
+	 * are on the boundary decreases.
+	 *
+	 * @return false if no triangle admits such a flip
+	 */
+	private boolean flip() {
+		while (this.blockedSize > 0) {
+			int t = this.blocked[--this.blockedSize];
+			if (!this.removed[t] && this.boundaryEdge(t) >= 0 && this.flipTowardsInterior(t))
+				return true;
+		}
+		while (this.flippableSize > 0) {
+			int t = this.flippable[--this.flippableSize];
+			if (!this.removed[t] && this.flipTowardsInterior(t))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * If the vertices of the triangle t are on the boundary, flip one of its edges shared with a triangle
+	 * whose third vertex is not on the boundary (the quadrilateral must be strictly convex)
+	 */
+	private boolean flipTowardsInterior(int t) {
+		DelaunayTriangulation dt = this.triangulation;
+		for (int j = 0; j < 3; j++) {
+			if (!this.onBoundary[dt.vertex[3 * t + j]])
+				return false;
+		}
+		for (int j = 0; j < 3; j++) {
+			int u = dt.neighbor[3 * t + j];
+			if (u < 0)
+				continue;
+			int p = dt.vertex[3 * t + j], q = dt.vertex[3 * t + (j + 1) % 3], r = dt.vertex[3 * t + (j + 2) % 3];
+			int w = dt.opposite(u, q, p);
+			// the new triangles (r, p, w) and (w, q, r) must be proper
+			if (this.onBoundary[w] || this.predicates.orientation(r, p, w) <= 0 || this.predicates.orientation(w, q, r) <= 0)
+				continue;
+			dt.flip(t, j);
+			this.flips++;
+			this.stamp[t]++;
+			this.stamp[u]++;
+			this.push(t);
+			this.push(u);
+			// the two triangles and their neighbors have changed
+			for (int k = 0; k < 3; k++) {
+				this.pushFlippable(dt.neighbor[3 * t + k]);
+				this.pushFlippable(dt.neighbor[3 * u + k]);
+			}
+			return true;
+		}
+		return false;
+	}
+}
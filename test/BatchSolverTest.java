@@ -0,0 +1,53 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The CSV summary of the batch solver
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class BatchSolverTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** Number of columns of a CSV line */
+	static int columns(String line) {
+		return line.split(",", -1).length;
+	}
+
+	@Test
+	public void errorLinesHaveTheSameColumns() throws IOException {
+		File root = this.folder.getRoot();
+		Files.copy(Paths.get("data/euro-night-0000100.instance"), new File(root, "a.instance").toPath());
+		Files.copy(Paths.get("data/uniform-0000010-1.instance"), new File(root, "b.instance").toPath());
+		Files.write(new File(root, "c.instance").toPath(), "# wrong file\n1\t2\n".getBytes(StandardCharsets.US_ASCII));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new BatchSolver(2, new PrintStream(output, true, "US-ASCII")).solve(BatchSolver.listInstances(root.getPath()));
+		String[] lines = output.toString("US-ASCII").split("\n");
+		assertEquals(4, lines.length);
+		assertEquals(BatchSolver.HEADER, lines[0]);
+		int errors = 0;
+		for (String line : lines) {
+			assertEquals(line, columns(BatchSolver.HEADER), columns(line));
+			if (!line.endsWith(","))
+				errors++;
+		}
+		assertEquals(2, errors); // the header, and the wrong file
+		assertTrue(new File(root, "a.min").exists() && new File(root, "b.max").exists());
+	}
+}
@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the convex hull (see OptimalPolygon.computeConvexHull)
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class ConvexHullTest {
+
+	/** Points of a grid of the given size (the nth point is the (n mod size)th of the column n / size) */
+	static OptimalPolygon gridPoints(int n, int size) {
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = i / size;
+			ys[i] = i % size;
+		}
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	/** Points on the boundary of a square of the given side (many collinear points on the hull) */
+	static OptimalPolygon squarePoints(int side) {
+		int n = 4 * side;
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < side; i++) {
+			xs[i] = i;
+			ys[i] = 0;
+			xs[side + i] = side;
+			ys[side + i] = i;
+			xs[2 * side + i] = side - i;
+			ys[2 * side + i] = side;
+			xs[3 * side + i] = 0;
+			ys[3 * side + i] = side - i;
+		}
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	static OptimalPolygon randomPoints(long seed, int n, int range) {
+		Random random = new Random(seed);
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = random.nextInt(range) - range / 2;
+			ys[i] = random.nextInt(range) - range / 2;
+		}
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	/**
+	 * Without the prefilter, the points are split in chunks of at least HULL_CHUNK_SIZE points: same hull as the
+	 * sequential algorithm (the chunks start in the middle of columns of points of the same x)
+	 */
+	@Test
+	public void parallelHullMatchesSequentialHull() {
+		int n = 3 * OptimalPolygon.HULL_CHUNK_SIZE + 7;
+		OptimalPolygon[] sets = {gridPoints(n, 1000), gridPoints(n, 999), squarePoints(n / 4), randomPoints(1, n, 1000),
+				randomPoints(2, n, Integer.MAX_VALUE)};
+		for (OptimalPolygon op : sets) {
+			op.setHullPrefilter(false);
+			op.setParallelism(1);
+			int[] hull = op.computeConvexHull();
+			long area = op.computeAreaConvexHull();
+			assertTrue(hull.length >= 4);
+			op.setParallelism(4);
+			assertArrayEquals(hull, op.computeConvexHull());
+			assertEquals(area, op.computeAreaConvexHull());
+		}
+	}
+
+	/**
+	 * Points of a small octagon (x, y, x+y and x-y bounded) of a grid: many points on the edges of the octagon of
+	 * the extreme points, several points with the same extreme coordinates, and duplicate points
+	 */
+	static OptimalPolygon octagonPoints(long seed, int n, int size) {
+		Random random = new Random(seed);
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			do {
+				xs[i] = random.nextInt(size);
+				ys[i] = random.nextInt(size);
+			} while (xs[i] + ys[i] < size / 3 || xs[i] + ys[i] > 2 * size - size / 3 || Math.abs(xs[i] - ys[i]) > size - size / 3);
+		}
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	/** The prefilter does not change the hull (the points on the edges of the octagon are kept) */
+	@Test
+	public void prefilterDoesNotChangeTheHull() {
+		for (int k = 0; k < 2000; k++) {
+			Random random = new Random(k);
+			int size = 2 + random.nextInt(15);
+			OptimalPolygon op = k % 2 == 0 ? octagonPoints(k, 1 + random.nextInt(3 * size), size)
+					: randomPoints(k, 1 + random.nextInt(100), size);
+			op.setHullPrefilter(false);
+			int[] hull = op.computeConvexHull();
+			op.setHullPrefilter(true);
+			assertArrayEquals("set " + k, hull, op.computeConvexHull());
+		}
+		OptimalPolygon op = squarePoints(1000);
+		op.setHullPrefilter(false);
+		int[] hull = op.computeConvexHull();
+		op.setHullPrefilter(true);
+		assertArrayEquals(hull, op.computeConvexHull());
+	}
+}
@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The exact solver against the enumeration of all the permutations, for at most 8 points
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class ExactSolverTest {
+
+	/** Smallest and largest areas of the simple polygons through the points ({-1, -1} if there are none) */
+	static long[] enumerate(OptimalPolygon op) {
+		int n = op.xs.length;
+		int[] polygon = new int[n];
+		for (int i = 0; i < n; i++)
+			polygon[i] = i;
+		long[] areas = {-1, -1};
+		enumerate(op, polygon, 1, areas);
+		return areas;
+	}
+
+	/** All the permutations of polygon[k..n-1] (polygon[0] is fixed) */
+	static void enumerate(OptimalPolygon op, int[] polygon, int k, long[] areas) {
+		if (k == polygon.length) {
+			if (op.checkValidity(polygon)) {
+				long area = op.computeArea(polygon);
+				if (areas[0] < 0 || area < areas[0])
+					areas[0] = area;
+				areas[1] = Math.max(areas[1], area);
+			}
+			return;
+		}
+		for (int i = k; i < polygon.length; i++) {
+			int tmp = polygon[k];
+			polygon[k] = polygon[i];
+			polygon[i] = tmp;
+			enumerate(op, polygon, k + 1, areas);
+			polygon[i] = polygon[k];
+			polygon[k] = tmp;
+		}
+	}
+
+	static void check(OptimalPolygon op, boolean minimize, long expected, int threads) {
+		ExactSolver solver = new ExactSolver(op, minimize);
+		int[] polygon = solver.run(threads);
+		if (expected < 0) {
+			assertNull(polygon);
+			return;
+		}
+		assertTrue(op.checkValidity(polygon));
+		assertEquals(expected, op.computeArea(polygon));
+		assertEquals(expected, solver.getArea());
+	}
+
+	@Test
+	public void solverMatchesEnumeration() {
+		Random random = new Random(5);
+		for (int k = 0; k < 60; k++) {
+			int n = 4 + random.nextInt(5), size = k % 2 == 0 ? 4 : 1000; // many collinear points, or general position
+			HashSet<Long> seen = new HashSet<Long>();
+			int[] xs = new int[n], ys = new int[n];
+			for (int i = 0; i < n; i++) {
+				do {
+					xs[i] = random.nextInt(size);
+					ys[i] = random.nextInt(size);
+				} while (!seen.add(((long) xs[i] << 32) | ys[i]));
+			}
+			OptimalPolygon op = new OptimalPolygon(new PackedPoints(xs, ys));
+			long[] areas = enumerate(op);
+			check(op, true, areas[0], 1 + k % 3);
+			check(op, false, areas[1], 1 + k % 3);
+		}
+	}
+
+	@Test
+	public void collinearPointsHaveNoPolygon() {
+		OptimalPolygon op = new OptimalPolygon(new PackedPoints(new int[] {0, 2, 4, 6, 8}, new int[] {0, 1, 2, 3, 4}));
+		check(op, true, -1, 1);
+		check(op, false, -1, 2);
+	}
+}
@@ -0,0 +1,146 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the greedy insertion (see InsertionEngine): the polygons must be the ones computed by the original
+ * quadratic implementation, stored in test/greedy-baseline.txt (one line per polygon: the name of the point set,
+ * min or max, and the permutation)
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class InsertionEngineTest {
+
+	static final String BASELINE = "test/greedy-baseline.txt";
+	static final String[] INSTANCES = {"bug", "uniform-0000010-1", "euro-night-0000100", "uniform-0000100-1",
+			"paris-0001000"};
+	static final int RANDOM_SETS = 100, COLLINEAR_SETS = 20;
+
+	/** Random points on a small grid (many collinear points and equal areas) or on a large one, without duplicates */
+	static GridPoint_2[] randomPoints(long seed) {
+		Random random = new Random(seed);
+		int size = random.nextBoolean() ? 4 + random.nextInt(12) : 10000;
+		int n = Math.min(4 + random.nextInt(40), size * size / 2);
+		HashSet<Long> seen = new HashSet<Long>();
+		GridPoint_2[] points = new GridPoint_2[n];
+		for (int i = 0; i < n; i++) {
+			int x, y;
+			do {
+				x = random.nextInt(size);
+				y = random.nextInt(size);
+			} while (!seen.add(((long) x << 32) | y));
+			points[i] = new GridPoint_2(x, y);
+		}
+		return points;
+	}
+
+	/** Points on a line, in random order */
+	static GridPoint_2[] collinearPoints(long seed) {
+		Random random = new Random(seed);
+		int n = 3 + random.nextInt(8), dx = 1 + random.nextInt(5), dy = random.nextInt(5) - 2;
+		GridPoint_2[] points = new GridPoint_2[n];
+		for (int i = 0; i < n; i++)
+			points[i] = new GridPoint_2(dx * i, dy * i);
+		Collections.shuffle(Arrays.asList(points), random);
+		return points;
+	}
+
+	/** The point sets of the baseline, by name */
+	static Map<String, OptimalPolygon> pointSets() {
+		Map<String, OptimalPolygon> sets = new LinkedHashMap<String, OptimalPolygon>();
+		for (String name : INSTANCES)
+			sets.put(name, new OptimalPolygon(PointCloud_IO.readMapped("data/" + name + ".instance")));
+		for (int seed = 0; seed < RANDOM_SETS; seed++)
+			sets.put("random-" + seed, new OptimalPolygon(randomPoints(seed)));
+		for (int seed = 0; seed < COLLINEAR_SETS; seed++)
+			sets.put("collinear-" + seed, new OptimalPolygon(collinearPoints(seed)));
+		return sets;
+	}
+
+	/** The polygons of the baseline, by name of the point set and side ("paris-0001000 min") */
+	static Map<String, int[]> baseline() throws IOException {
+		Map<String, int[]> polygons = new LinkedHashMap<String, int[]>();
+		BufferedReader reader = new BufferedReader(new FileReader(BASELINE));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] tokens = line.trim().split(" ");
+				int[] polygon = new int[tokens.length - 2];
+				for (int i = 0; i < polygon.length; i++)
+					polygon[i] = Integer.parseInt(tokens[i + 2]);
+				polygons.put(tokens[0] + " " + tokens[1], polygon);
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return polygons;
+	}
+
+	/** Compare the polygons computed on each point set with the ones of the baseline */
+	static void checkBaseline(String side) throws IOException {
+		Map<String, int[]> polygons = baseline();
+		int checked = 0;
+		for (Map.Entry<String, OptimalPolygon> set : pointSets().entrySet()) {
+			String key = set.getKey() + " " + side;
+			OptimalPolygon op = set.getValue();
+			int[] polygon = side.equals("min") ? op.computeMinimalAreaPolygon() : op.computeMaximalAreaPolygon();
+			assertArrayEquals(key, polygons.get(key), polygon);
+			checked++;
+		}
+		assertEquals(INSTANCES.length + RANDOM_SETS + COLLINEAR_SETS, checked);
+	}
+
+	@Test
+	public void minimalAreaPolygonsMatchTheBaseline() throws IOException {
+		checkBaseline("min");
+	}
+
+	@Test
+	public void maximalAreaPolygonsMatchTheBaseline() throws IOException {
+		checkBaseline("max");
+	}
+
+	/** Random points of a small grid (many collinear points and equal areas), without duplicates */
+	static OptimalPolygon gridPoints(long seed, int n, int size) {
+		Random random = new Random(seed);
+		HashSet<Long> seen = new HashSet<Long>();
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			do {
+				xs[i] = random.nextInt(size);
+				ys[i] = random.nextInt(size);
+			} while (!seen.add(((long) xs[i] << 32) | ys[i]));
+		}
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	/** The scans of more than SCAN_GRAIN remaining points are split among the threads: the polygons do not change */
+	@Test
+	public void parallelRunIsDeterministic() {
+		OptimalPolygon[] sets = {new OptimalPolygon(PointCloud_IO.readMapped("data/uniform-0001000-1.instance")),
+				new OptimalPolygon(PointCloud_IO.readMapped("data/paris-0001000.instance")),
+				gridPoints(1, 1500, 50), gridPoints(2, 2000, 45)};
+		for (OptimalPolygon op : sets) {
+			assertTrue(op.xs.length > InsertionEngine.SCAN_GRAIN);
+			op.setParallelism(1);
+			int[] minimal = op.computeMinimalAreaPolygon(), maximal = op.computeMaximalAreaPolygon();
+			op.setParallelism(4);
+			assertArrayEquals(minimal, op.computeMinimalAreaPolygon());
+			assertArrayEquals(maximal, op.computeMaximalAreaPolygon());
+		}
+	}
+}
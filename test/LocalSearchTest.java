@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of LocalSearch: after each batch of seeded moves, the polygon must be simple, and its area must be
+ * the one updated incrementally (decreasing for the minimal area, increasing for the maximal area)
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class LocalSearchTest {
+
+	/** Random points without duplicates (many collinear points when the range is small) */
+	static OptimalPolygon randomPoints(Random random, int n, int range) {
+		HashSet<Long> seen = new HashSet<Long>();
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			do {
+				xs[i] = random.nextInt(range) - range / 2;
+				ys[i] = random.nextInt(range) - range / 2;
+			} while (!seen.add(((long) xs[i] << 32) | (ys[i] & 0xffffffffL)));
+		}
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	/**
+	 * Run batches of moves from the polygon, checking the polygon after each batch having accepted moves
+	 *
+	 * @return the number of accepted moves
+	 */
+	static long check(OptimalPolygon op, int[] polygon, boolean minimize, long seed, int batches, int moves) {
+		assertTrue(op.checkValidity(polygon));
+		LocalSearch search = new LocalSearch(op, polygon, minimize, seed);
+		// twice the area (the area is rounded down)
+		long area = Math.abs(search.doubleArea), accepted = 0;
+		assertEquals(op.computeArea(polygon), search.getArea());
+		for (int k = 0; k < batches; k++) {
+			search.runMoves(moves);
+			if (search.accepted == accepted) {
+				assertEquals(area, Math.abs(search.doubleArea));
+				continue;
+			}
+			accepted = search.accepted;
+			int[] current = search.toArray();
+			assertTrue(op.checkValidity(current));
+			assertEquals(op.computeArea(current), search.getArea());
+			assertEquals(Math.abs(op.predicates.doubleSignedArea(current)), Math.abs(search.doubleArea));
+			assertTrue(minimize ? Math.abs(search.doubleArea) < area : Math.abs(search.doubleArea) > area);
+			area = Math.abs(search.doubleArea);
+		}
+		// the moves only depend on the seed
+		LocalSearch again = new LocalSearch(op, polygon, minimize, seed);
+		again.runMoves((long) batches * moves);
+		assertArrayEquals(search.toArray(), again.toArray());
+		return accepted;
+	}
+
+	@Test
+	public void randomPolygons() {
+		Random random = new Random(13);
+		long accepted = 0;
+		for (int k = 0; k < 200; k++) {
+			// small ranges: many collinear points, and moves creating overlapping edges
+			int range = k % 2 == 0 ? 4 + random.nextInt(20) : 1000000;
+			int n = (int) Math.min(5 + random.nextInt(150), (long) range * range / 2);
+			OptimalPolygon op = randomPoints(random, n, range);
+			int[] monotone = op.computeMonotonePolygon();
+			if (!op.monotoneSimple)
+				continue; // collinear points
+			int[] start = k % 4 < 2 ? monotone : op.computeStarShapedPolygon();
+			accepted += check(op, start, k % 3 != 0, k, 20, 50);
+		}
+		assertTrue(accepted > 0);
+	}
+
+	/** Long edges of the x-monotone polygon: most crossing searches test more than MAX_GRID_EDGES edges */
+	@Test
+	public void crowdedGrid() {
+		OptimalPolygon op = new OptimalPolygon(PointCloud_IO.readMapped("data/uniform-0010000-1.instance"));
+		int[] monotone = op.computeMonotonePolygon();
+		// the longest edge crosses no edge, but the search gives up
+		SegmentGrid grid = new SegmentGrid(op.packedPoints);
+		int longest = 0;
+		for (int i = 0; i < monotone.length; i++) {
+			int j = (i + 1) % monotone.length;
+			grid.add(monotone[i], monotone[j]);
+			if (op.distance(monotone[i], monotone[j]) > op.distance(monotone[longest], monotone[(longest + 1) % monotone.length]))
+				longest = i;
+		}
+		int u = monotone[longest], v = monotone[(longest + 1) % monotone.length];
+		assertEquals(-1, grid.findCrossing(op, u, v));
+		assertEquals(SegmentGrid.TOO_MANY_EDGES, grid.findCrossing(op, u, v, LocalSearch.MAX_GRID_EDGES));
+		assertTrue(check(op, monotone, true, 1, 50, 200) > 0);
+		assertTrue(check(op, monotone, false, 2, 50, 200) > 0);
+	}
+
+	/** With a positive temperature, the area may get worse, but the polygon stays simple and its area exact */
+	@Test
+	public void positiveTemperature() {
+		Random random = new Random(17);
+		for (int k = 0; k < 50; k++) {
+			OptimalPolygon op = randomPoints(random, 5 + random.nextInt(100), k % 2 == 0 ? 12 : 1000000);
+			int[] monotone = op.computeMonotonePolygon();
+			if (!op.monotoneSimple)
+				continue;
+			LocalSearch search = new LocalSearch(op, monotone, true, k);
+			search.setTemperature(1e12);
+			for (int batch = 0; batch < 20; batch++) {
+				search.runMoves(50);
+				int[] current = search.toArray();
+				assertTrue(op.checkValidity(current));
+				assertEquals(op.computeArea(current), search.getArea());
+			}
+		}
+	}
+}
@@ -0,0 +1,218 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the main functions of OptimalPolygon
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class OptimalPolygonTest {
+
+	static OptimalPolygon load(String name) {
+		return new OptimalPolygon(PointCloud_IO.readMapped("data/" + name + ".instance"));
+	}
+
+	static OptimalPolygon points(int[] xs, int[] ys) {
+		return new OptimalPolygon(new PackedPoints(xs, ys));
+	}
+
+	@Test
+	public void minimalAreaPolygonIsValid() {
+		OptimalPolygon op = load("paris-0001000");
+		int[] polygon = op.computeMinimalAreaPolygon();
+		assertTrue(op.checkValidity(polygon));
+		assertEquals(op.computeArea(polygon), op.getMinimalArea());
+	}
+
+	/** bug.instance: no polygon edge admits an empty triangle with the point 8 */
+	@Test
+	public void stuckInsertionIsReported() {
+		OptimalPolygon op = load("bug");
+		int[] polygon = op.computeMinimalAreaPolygon();
+		assertEquals(9, polygon.length);
+		assertFalse(op.checkValidity(polygon));
+		assertEquals(-1, op.getMinimalArea());
+	}
+
+	@Test
+	public void collinearPointsAreReported() {
+		OptimalPolygon op = points(new int[] {0, 2, 4, 6, 8}, new int[] {0, 1, 2, 3, 4});
+		assertFalse(op.checkValidity(op.computeMinimalAreaPolygon()));
+		assertFalse(op.checkValidity(op.computeMaximalAreaPolygon()));
+	}
+
+	static boolean isPermutation(int[] polygon, int n) {
+		int[] sorted = Arrays.copyOf(polygon, polygon.length);
+		Arrays.sort(sorted);
+		for (int i = 0; i < sorted.length; i++) {
+			if (sorted[i] != i)
+				return false;
+		}
+		return sorted.length == n;
+	}
+
+	/** No point on the left of the segment joining the extreme points: the closing edge must avoid the points on it */
+	@Test
+	public void pointsOnTheExtremeSegment() {
+		int[][] ys = {{2, 2, 1, 2}, {2, 2, 3, 2}, {2, 2, 1, 2, 2, 0}};
+		int[][] xs = {{1, 4, 3, 2}, {1, 4, 3, 2}, {1, 5, 3, 2, 4, 3}};
+		for (int k = 0; k < xs.length; k++) {
+			OptimalPolygon op = points(xs[k], ys[k]);
+			assertTrue(op.checkValidity(op.computeMonotonePolygon()));
+			assertTrue(op.checkValidity(op.computeStarShapedPolygon()));
+		}
+	}
+
+	/** Random points on a small grid (many collinear points), without duplicates */
+	@Test
+	public void baselinePolygonsAreValid() {
+		Random random = new Random(3);
+		for (int k = 0; k < 5000; k++) {
+			int n = 4 + random.nextInt(11), size = 2 + random.nextInt(4);
+			HashSet<Long> seen = new HashSet<Long>();
+			int[] xs = new int[n], ys = new int[n];
+			for (int i = 0; i < n; i++) {
+				do {
+					xs[i] = random.nextInt(size);
+					ys[i] = random.nextInt(size);
+				} while (!seen.add(((long) xs[i] << 32) | ys[i]) && seen.size() < size * size);
+			}
+			if (seen.size() < n)
+				continue; // not enough distinct points on the grid
+			OptimalPolygon op = points(xs, ys);
+			boolean collinear = true;
+			for (int i = 2; i < n; i++)
+				collinear &= op.predicates.orientation(0, 1, i) == 0;
+			int[] monotone = op.computeMonotonePolygon(), star = op.computeStarShapedPolygon();
+			assertEquals(!collinear, op.checkValidity(monotone));
+			assertEquals(!collinear, op.monotoneSimple);
+			assertEquals(!collinear, op.checkValidity(star));
+			assertEquals(op.computeArea(monotone), op.getMonotoneArea());
+			assertEquals(op.computeArea(star), op.getStarShapedArea());
+		}
+	}
+
+	@Test
+	public void degenerateBaselinePolygons() {
+		// collinear points: a permutation of area 0
+		OptimalPolygon op = points(new int[] {0, 2, 4, 6, 8}, new int[] {0, 1, 2, 3, 4});
+		int[] monotone = op.computeMonotonePolygon(), star = op.computeStarShapedPolygon();
+		assertTrue(isPermutation(monotone, 5) && isPermutation(star, 5));
+		assertEquals(0, op.getMonotoneArea());
+		assertEquals(0, op.getStarShapedArea());
+		assertFalse(op.checkValidity(monotone));
+		assertFalse(op.checkValidity(star));
+
+		// duplicate points (here, the center of the star): a permutation, which cannot be simple
+		op = points(new int[] {0, 3, 0, 1, 1, 3}, new int[] {0, 0, 3, 1, 1, 3});
+		monotone = op.computeMonotonePolygon();
+		star = op.computeStarShapedPolygon();
+		assertTrue(isPermutation(monotone, 6) && isPermutation(star, 6));
+		assertFalse(op.checkValidity(monotone));
+		assertFalse(op.checkValidity(star));
+	}
+
+	/** Records the published polygons */
+	static class Snapshots implements SolutionListener {
+		ArrayList<int[]> polygons = new ArrayList<int[]>();
+		ArrayList<Long> areas = new ArrayList<Long>();
+
+		public void improved(int[] polygon, long area) {
+			this.polygons.add(polygon);
+			this.areas.add(area);
+		}
+	}
+
+	/** With an expired budget, the anytime solver returns and publishes the x-monotone polygon */
+	@Test
+	public void anytimeSolverWithExpiredBudget() {
+		OptimalPolygon op = load("uniform-0100000-1");
+		int[] monotone = op.computeMonotonePolygon();
+		for (int side = 0; side < 2; side++) {
+			Snapshots snapshots = new Snapshots();
+			int[] polygon = side == 0 ? op.computeMinimalAreaPolygon(0, snapshots) : op.computeMaximalAreaPolygon(0, snapshots);
+			assertArrayEquals(monotone, polygon);
+			assertEquals(op.computeArea(monotone), side == 0 ? op.getMinimalArea() : op.getMaximalArea());
+			assertEquals(1, snapshots.polygons.size());
+			assertArrayEquals(monotone, snapshots.polygons.get(0));
+		}
+	}
+
+	/** An insertion whose deadline has passed stops, and its polygon is not complete */
+	@Test
+	public void insertionStopsAtTheDeadline() {
+		OptimalPolygon op = load("uniform-0010000-1");
+		InsertionEngine engine = new InsertionEngine(op, InsertionEngine.LARGEST_TRIANGLE);
+		engine.setDeadline(System.nanoTime() - 1);
+		engine.run();
+		assertFalse(engine.isComplete());
+	}
+
+	/**
+	 * With a large budget, the snapshots are the x-monotone polygon, the greedy polygon, and the one of the
+	 * local search (if it improves it): all valid, with decreasing (increasing) areas
+	 */
+	@Test
+	public void anytimeSnapshots() {
+		OptimalPolygon op = load("paris-0001000");
+		int[][] greedy = {op.computeMinimalAreaPolygon(), op.computeMaximalAreaPolygon()};
+		for (int side = 0; side < 2; side++) {
+			Snapshots snapshots = new Snapshots();
+			int[] polygon = side == 0 ? op.computeMinimalAreaPolygon(60000, snapshots) : op.computeMaximalAreaPolygon(60000, snapshots);
+			assertTrue(snapshots.polygons.size() >= 2);
+			assertArrayEquals(op.computeMonotonePolygon(), snapshots.polygons.get(0));
+			assertArrayEquals(greedy[side], snapshots.polygons.get(1));
+			assertArrayEquals(polygon, snapshots.polygons.get(snapshots.polygons.size() - 1));
+			for (int i = 0; i < snapshots.polygons.size(); i++) {
+				assertTrue(op.checkValidity(snapshots.polygons.get(i)));
+				long area = snapshots.areas.get(i);
+				assertEquals(op.computeArea(snapshots.polygons.get(i)), area);
+				if (i > 0)
+					assertTrue(side == 0 ? area < snapshots.areas.get(i - 1) : area > snapshots.areas.get(i - 1));
+			}
+		}
+	}
+
+	/** No snapshot is published when the points are collinear */
+	@Test
+	public void anytimeSolverOnCollinearPoints() {
+		OptimalPolygon op = points(new int[] {0, 2, 4, 6, 8}, new int[] {0, 1, 2, 3, 4});
+		Snapshots snapshots = new Snapshots();
+		op.computeMaximalAreaPolygon(100, snapshots);
+		assertTrue(snapshots.polygons.isEmpty());
+	}
+
+	@Test
+	public void carvingPolygonsAreValid() {
+		OptimalPolygon op = load("world-0010000");
+		assertTrue(op.checkValidity(op.computeMinimalAreaPolygonByCarving()));
+		assertTrue(op.checkValidity(op.computeMaximalAreaPolygonByCarving()));
+		// small grids: many collinear and cocircular points, and many flips
+		Random random = new Random(9);
+		for (int k = 0; k < 200; k++) {
+			int size = 3 + random.nextInt(20);
+			HashSet<Long> seen = new HashSet<Long>();
+			int n = 4 + random.nextInt(size * size / 2);
+			int[] xs = new int[n], ys = new int[n];
+			for (int i = 0; i < n; i++) {
+				do {
+					xs[i] = random.nextInt(size);
+					ys[i] = random.nextInt(size);
+				} while (!seen.add(((long) xs[i] << 32) | ys[i]));
+			}
+			op = points(xs, ys);
+			assertTrue(op.checkValidity(new TriangleCarving(op, InsertionEngine.LARGEST_TRIANGLE).run()));
+			assertTrue(op.checkValidity(new TriangleCarving(op, InsertionEngine.SMALLEST_TRIANGLE).run()));
+		}
+	}
+}
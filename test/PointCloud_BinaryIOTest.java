@@ -0,0 +1,71 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Round trips through the binary and text files
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PointCloud_BinaryIOTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	String file(String name) {
+		return new File(this.folder.getRoot(), name).getPath();
+	}
+
+	@Test
+	public void instanceRoundTrip() {
+		PackedPoints points = PointCloud_IO.readMapped("data/paris-0001000.instance");
+		PointCloud_BinaryIO.writeInstance(points, this.file("paris.bin"));
+		PackedPoints read = PointCloud_BinaryIO.readInstance(this.file("paris.bin"));
+		assertArrayEquals(points.xs, read.xs);
+		assertArrayEquals(points.ys, read.ys);
+		assertEquals(points.convexHullArea, read.convexHullArea);
+
+		// binary -> text -> binary
+		PointCloud_BinaryIO.convert(this.file("paris.bin"), this.file("paris.instance"));
+		PointCloud_BinaryIO.convert(this.file("paris.instance"), this.file("paris2.bin"));
+		read = PointCloud_BinaryIO.readInstance(this.file("paris2.bin"));
+		assertArrayEquals(points.xs, read.xs);
+		assertArrayEquals(points.ys, read.ys);
+		assertEquals(points.convexHullArea, read.convexHullArea);
+	}
+
+	@Test
+	public void extremeCoordinatesRoundTrip() {
+		PackedPoints points = new PackedPoints(new int[] {Integer.MIN_VALUE, 0, Integer.MAX_VALUE},
+				new int[] {Integer.MAX_VALUE, -1, Integer.MIN_VALUE});
+		PointCloud_BinaryIO.writeInstance(points, this.file("extreme.bin"));
+		PackedPoints read = PointCloud_BinaryIO.readInstance(this.file("extreme.bin"));
+		assertArrayEquals(points.xs, read.xs);
+		assertArrayEquals(points.ys, read.ys);
+	}
+
+	@Test
+	public void polygonRoundTrip() {
+		int[] polygon = {3, 0, 4, 1, 2};
+		PointCloud_BinaryIO.writePolygon(polygon, 42, this.file("p.bin"));
+		assertArrayEquals(polygon, PointCloud_BinaryIO.readPolygon(this.file("p.bin")));
+
+		// binary -> text -> binary
+		PointCloud_BinaryIO.convert(this.file("p.bin"), this.file("p.min"));
+		assertArrayEquals(polygon, PointCloud_BinaryIO.readPolygonText(this.file("p.min")));
+		PointCloud_BinaryIO.convert(this.file("p.min"), this.file("p2.bin"));
+		assertArrayEquals(polygon, PointCloud_BinaryIO.readPolygon(this.file("p2.bin")));
+	}
+
+	@Test(expected = Error.class)
+	public void wrongMagicNumberIsRejected() {
+		PointCloud_BinaryIO.writePolygon(new int[] {0, 1, 2}, -1, this.file("q.bin"));
+		PointCloud_BinaryIO.readInstance(this.file("q.bin"));
+	}
+}
@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.nio.file.InvalidPathException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Writing two polygons at the same time (see PointCloud_IO.write)
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PointCloud_IOTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void twoPolygonsAreWritten() {
+		int[] polygon1 = {0, 3, 1, 2}, polygon2 = {4, 2, 0, -1, 123456789};
+		for (int k = 0; k < 3; k++) {
+			String file1 = new File(this.folder.getRoot(), k + ".min").getPath();
+			String file2 = new File(this.folder.getRoot(), k + ".max").getPath();
+			PointCloud_IO.write(polygon1, file1, polygon2, file2);
+			assertArrayEquals(polygon1, PointCloud_BinaryIO.readPolygonText(file1));
+			assertArrayEquals(polygon2, PointCloud_BinaryIO.readPolygonText(file2));
+		}
+	}
+
+	/** The Error of the second writer is rethrown by the calling thread */
+	@Test(expected = Error.class)
+	public void errorOfTheSecondWriterIsRethrown() {
+		String file1 = new File(this.folder.getRoot(), "a.min").getPath();
+		String file2 = new File(this.folder.getRoot(), "missing/a.max").getPath();
+		PointCloud_IO.write(new int[] {0, 1, 2}, file1, new int[] {0, 1, 2}, file2);
+	}
+
+	/** So is a RuntimeException */
+	@Test(expected = InvalidPathException.class)
+	public void runtimeExceptionOfTheSecondWriterIsRethrown() {
+		String file1 = new File(this.folder.getRoot(), "b.min").getPath();
+		PointCloud_IO.write(new int[] {0, 1, 2}, file1, new int[] {0, 1, 2}, "b\u0000.max");
+	}
+}
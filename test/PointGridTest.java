@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The empty triangle test of the point grid against a linear scan of the remaining points
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class PointGridTest {
+
+	/** Linear scan: whether a point of the subset lies strictly in the triangle (p, a, b) */
+	static boolean naive(OptimalPolygon op, IntSet subset, int p, int a, int b) {
+		for (int i = 0; i < subset.size(); i++) {
+			if (op.isInTriangle(subset.get(i), p, a, b))
+				return true;
+		}
+		return false;
+	}
+
+	static void check(Random random, int n, int span) {
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = random.nextInt(span) - span / 2;
+			ys[i] = random.nextInt(span) - span / 2;
+		}
+		OptimalPolygon op = new OptimalPolygon(new PackedPoints(xs, ys));
+		IntSet subset = new IntSet(n);
+		for (int p = 0; p < n; p++) {
+			if (random.nextInt(3) != 0)
+				subset.add(p);
+		}
+		PointGrid grid = new PointGrid(op.packedPoints, subset);
+		for (int k = 0; k < 100; k++) {
+			// remove a point between the queries (possibly one which is not in the grid)
+			int r = random.nextInt(n);
+			grid.remove(r);
+			subset.remove(r);
+			for (int p = 0; p < n; p++)
+				assertEquals(subset.contains(p), grid.contains(p));
+
+			int p = random.nextInt(n), a = random.nextInt(n), b = random.nextInt(n);
+			int found = grid.findInTriangle(op, p, a, b);
+			assertEquals(naive(op, subset, p, a, b), found >= 0);
+			if (found >= 0)
+				assertEquals(true, subset.contains(found) && op.isInTriangle(found, p, a, b));
+		}
+	}
+
+	@Test
+	public void findInTriangleMatchesLinearScan() {
+		Random random = new Random(7);
+		for (int k = 0; k < 300; k++) {
+			check(random, 3 + random.nextInt(60), 6); // many points on the edges, and collinear triangles
+			check(random, 3 + random.nextInt(200), 1000);
+			check(random, 3 + random.nextInt(200), Integer.MAX_VALUE); // large cells
+		}
+	}
+
+	/** The points on the edges of the triangle, or on a degenerate triangle, are not in the triangle */
+	@Test
+	public void pointsOnTheBoundary() {
+		// triangle (0, 1, 2), the points 3, 4 and 5 on its edges, the point 6 on the segment (0, 7)
+		int[] xs = {0, 4, 0, 2, 2, 0, 1, 2}, ys = {0, 0, 4, 0, 2, 1, 0, 0};
+		OptimalPolygon op = new OptimalPolygon(new PackedPoints(xs, ys));
+		IntSet subset = new IntSet(xs.length);
+		for (int p = 3; p < xs.length; p++)
+			subset.add(p);
+		PointGrid grid = new PointGrid(op.packedPoints, subset);
+		assertEquals(-1, grid.findInTriangle(op, 0, 1, 2));
+		assertEquals(-1, grid.findInTriangle(op, 0, 7, 1));
+		assertEquals(-1, grid.findInTriangle(op, 0, 0, 1));
+		// a point inside
+		subset.add(1);
+		xs[7] = 1;
+		ys[7] = 1;
+		op = new OptimalPolygon(new PackedPoints(xs, ys));
+		grid = new PointGrid(op.packedPoints, subset);
+		assertEquals(7, grid.findInTriangle(op, 0, 1, 2));
+		grid.remove(7);
+		assertEquals(-1, grid.findInTriangle(op, 0, 1, 2));
+	}
+}
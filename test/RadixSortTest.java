@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of RadixSort, compared with a comparator sort (lexicographic order, stable)
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class RadixSortTest {
+
+	static final int[] EXTREMES = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+
+	/** A random coordinate: from a small range (many equal keys), from the extreme values, or any int */
+	static int coordinate(Random random, int kind) {
+		if (kind == 0)
+			return random.nextInt(7) - 3;
+		if (kind == 1)
+			return EXTREMES[random.nextInt(EXTREMES.length)];
+		return random.nextInt();
+	}
+
+	/** The items sorted by a stable comparator sort */
+	static int[] expected(final int[] xs, final int[] ys, int[] items, final int[] points) {
+		Integer[] boxed = new Integer[items.length];
+		for (int i = 0; i < items.length; i++)
+			boxed[i] = items[i];
+		Arrays.sort(boxed, new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				int p = points == null ? i1 : points[i1], q = points == null ? i2 : points[i2];
+				if (xs[p] != xs[q])
+					return Integer.compare(xs[p], xs[q]);
+				return Integer.compare(ys[p], ys[q]);
+			}
+		});
+		int[] sorted = new int[items.length];
+		for (int i = 0; i < items.length; i++)
+			sorted[i] = boxed[i];
+		return sorted;
+	}
+
+	@Test
+	public void sortByCoordinatesMatchesComparatorSort() {
+		Random random = new Random(5);
+		for (int k = 0; k < 3000; k++) {
+			int n = k % 10 == 0 ? 1000 + random.nextInt(5000) : random.nextInt(2 * RadixSort.SMALL_SIZE);
+			int xKind = random.nextInt(3), yKind = random.nextInt(3);
+			int[] xs = new int[n], ys = new int[n];
+			for (int i = 0; i < n; i++) {
+				xs[i] = coordinate(random, xKind);
+				ys[i] = coordinate(random, yKind);
+			}
+			// the points themselves
+			int[] items = new int[n];
+			for (int i = 0; i < n; i++)
+				items[i] = i;
+			int[] sorted = expected(xs, ys, items, null);
+			RadixSort.sortByCoordinates(xs, ys, items, null, n);
+			assertArrayEquals("set " + k, sorted, items);
+
+			// items referring to the points (several items per point), sorted twice: the input is then sorted
+			int[] points = new int[n];
+			for (int i = 0; i < n; i++) {
+				items[i] = i;
+				points[i] = random.nextInt(Math.max(1, n / 2));
+			}
+			sorted = expected(xs, ys, items, points);
+			RadixSort.sortByCoordinates(xs, ys, items, points, n);
+			assertArrayEquals("set " + k, sorted, items);
+			RadixSort.sortByCoordinates(xs, ys, items, points, n);
+			assertArrayEquals("set " + k, sorted, items);
+		}
+	}
+
+	/** Only the first n items are sorted */
+	@Test
+	public void prefixIsSorted() {
+		int[] xs = {5, -3, Integer.MAX_VALUE, Integer.MIN_VALUE, 0}, ys = {0, 0, 0, 0, 0};
+		int[] items = {0, 1, 2, 3, 4};
+		RadixSort.sortByCoordinates(xs, ys, items, null, 3);
+		assertArrayEquals(new int[] {1, 0, 2, 3, 4}, items);
+	}
+}
@@ -0,0 +1,71 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The crossing search of the segment grid against the naive test of all the edges
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class SegmentGridTest {
+
+	/** Naive search: whether an edge (c, end[c]) not incident to u or v intersects [u, v] */
+	static boolean naive(OptimalPolygon op, int[] end, int u, int v) {
+		for (int c = 0; c < end.length; c++) {
+			int d = end[c];
+			if (d >= 0 && u != c && u != d && v != c && v != d && op.doIntersect(u, v, c, d))
+				return true;
+		}
+		return false;
+	}
+
+	static void check(Random random, int n, int span) {
+		int[] xs = new int[n], ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = random.nextInt(span) - span / 2;
+			ys[i] = random.nextInt(span) - span / 2;
+		}
+		OptimalPolygon op = new OptimalPolygon(new PackedPoints(xs, ys));
+		SegmentGrid grid = new SegmentGrid(op.packedPoints);
+		int[] end = new int[n];
+		for (int c = 0; c < n; c++) {
+			end[c] = random.nextInt(4) == 0 ? (c + 1 + random.nextInt(n - 1)) % n : -1;
+			if (end[c] >= 0)
+				grid.add(c, end[c]);
+		}
+		for (int k = 0; k < 50; k++) {
+			// remove or add a few edges between the queries
+			int c = random.nextInt(n);
+			if (end[c] >= 0) {
+				grid.remove(c);
+				end[c] = -1;
+			}
+			else {
+				end[c] = (c + 1 + random.nextInt(n - 1)) % n;
+				grid.add(c, end[c]);
+			}
+			int u = random.nextInt(n), v = (u + 1 + random.nextInt(n - 1)) % n;
+			int found = grid.findCrossing(op, u, v);
+			assertEquals(naive(op, end, u, v), found >= 0);
+			// a limited search gives up, or gives the same answer
+			int limited = grid.findCrossing(op, u, v, random.nextInt(2 * n));
+			assertEquals(true, limited == SegmentGrid.TOO_MANY_EDGES || (limited >= 0) == (found >= 0));
+			assertEquals(found, grid.findCrossing(op, u, v, Integer.MAX_VALUE));
+			if (found >= 0)
+				assertEquals(true, end[found] >= 0 && op.doIntersect(u, v, found, end[found]));
+		}
+	}
+
+	@Test
+	public void findCrossingMatchesNaiveSearch() {
+		Random random = new Random(11);
+		for (int k = 0; k < 300; k++) {
+			check(random, 10 + random.nextInt(60), 8); // many collinear and touching edges
+			check(random, 10 + random.nextInt(200), 1000);
+			check(random, 10 + random.nextInt(200), Integer.MAX_VALUE); // a single cell
+		}
+	}
+}
@@ -0,0 +1,73 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The sweep line test against the naive test of all the pairs of edges
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class SelfIntersectionSweepTest {
+
+	/** Naive test: two non consecutive edges having a common point, or two consecutive edges overlapping */
+	static boolean naive(OptimalPolygon op, int[] polygon) {
+		int n = polygon.length;
+		if (n < 4)
+			return false;
+		for (int s = 0; s < n; s++) {
+			int p = polygon[s], q = polygon[(s + 1) % n];
+			if (op.xs[p] == op.xs[q] && op.ys[p] == op.ys[q])
+				return true;
+			for (int t = s + 1; t < n; t++) {
+				int r = polygon[t], u = polygon[(t + 1) % n];
+				if (t == s + 1 || (t + 1) % n == s) {
+					// consecutive edges (w, a) and (w, b)
+					int w = t == s + 1 ? q : p, a = t == s + 1 ? p : q, b = t == s + 1 ? u : r;
+					if (op.predicates.orientation(w, a, b) == 0 && op.predicates.dotProductSign(w, a, b) > 0)
+						return true;
+				}
+				else if (op.doIntersect(p, q, r, u))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/** Random polygons on a small grid: many collinear, touching and overlapping edges */
+	@Test
+	public void sweepMatchesNaiveTest() {
+		Random random = new Random(7);
+		int intersecting = 0;
+		for (int k = 0; k < 20000; k++) {
+			int n = 3 + random.nextInt(8), size = 2 + random.nextInt(5);
+			int[] xs = new int[n], ys = new int[n], polygon = new int[n];
+			for (int i = 0; i < n; i++) {
+				xs[i] = random.nextInt(size);
+				ys[i] = random.nextInt(size);
+				polygon[i] = i;
+			}
+			for (int i = n - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1), tmp = polygon[i];
+				polygon[i] = polygon[j];
+				polygon[j] = tmp;
+			}
+			OptimalPolygon op = new OptimalPolygon(new PackedPoints(xs, ys));
+			boolean expected = naive(op, polygon);
+			assertEquals(expected, op.doesSelfIntersect(polygon));
+			if (expected)
+				intersecting++;
+		}
+		// both outcomes must be covered
+		assertEquals(true, intersecting > 0 && intersecting < 20000);
+	}
+
+	@Test
+	public void computedPolygonsAreSimple() {
+		OptimalPolygon op = OptimalPolygonTest.load("paris-0001000");
+		assertEquals(false, op.doesSelfIntersect(op.computeMinimalAreaPolygon()));
+		assertEquals(false, op.doesSelfIntersect(op.computeMaximalAreaPolygon()));
+	}
+}
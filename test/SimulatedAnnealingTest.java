@@ -0,0 +1,56 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of SimulatedAnnealing: the result only depends on the seed, not on the number of threads
+ *
+ * @author Dana Chaillard, Ilan Coulon (2020)
+ *
+ */
+public class SimulatedAnnealingTest {
+
+	/** Run the annealing with 1 and 4 threads, and compare the results */
+	static void check(OptimalPolygon op, int[] polygon, boolean minimize, long seed) {
+		SimulatedAnnealing sequential = new SimulatedAnnealing(op, polygon, minimize, 4, seed);
+		int[] result = sequential.run(5, 1);
+		SimulatedAnnealing parallel = new SimulatedAnnealing(op, polygon, minimize, 4, seed);
+		assertArrayEquals(result, parallel.run(5, 4));
+		assertEquals(sequential.getArea(), parallel.getArea());
+		assertTrue(op.checkValidity(result));
+		assertEquals(op.computeArea(result), sequential.getArea());
+		long area = op.computeArea(polygon);
+		assertTrue(minimize ? sequential.getArea() <= area : sequential.getArea() >= area);
+	}
+
+	@Test
+	public void resultDoesNotDependOnTheThreads() {
+		OptimalPolygon op = new OptimalPolygon(PointCloud_IO.readMapped("data/paris-0001000.instance"));
+		check(op, op.computeMinimalAreaPolygonByCarving(), true, 1);
+		check(op, op.computeMaximalAreaPolygonByCarving(), false, 2);
+		op = new OptimalPolygon(PointCloud_IO.readMapped("data/uniform-0001000-1.instance"));
+		check(op, op.computeMonotonePolygon(), true, 3);
+		// small grids: many collinear points
+		Random random = new Random(19);
+		for (int k = 0; k < 20; k++) {
+			int n = 10 + random.nextInt(60), size = 12;
+			HashSet<Long> seen = new HashSet<Long>();
+			int[] xs = new int[n], ys = new int[n];
+			for (int i = 0; i < n; i++) {
+				do {
+					xs[i] = random.nextInt(size);
+					ys[i] = random.nextInt(size);
+				} while (!seen.add(((long) xs[i] << 32) | ys[i]));
+			}
+			op = new OptimalPolygon(new PackedPoints(xs, ys));
+			int[] monotone = op.computeMonotonePolygon();
+			if (op.monotoneSimple)
+				check(op, monotone, k % 2 == 0, k);
+		}
+	}
+}